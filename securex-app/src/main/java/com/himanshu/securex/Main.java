@@ -1,6 +1,7 @@
 package com.himanshu.securex;
 
 import com.himanshu.securex.controller.LoginController;
+import com.himanshu.securex.services.VaultWriter;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.scene.Scene;
@@ -24,6 +25,8 @@ public class Main extends Application {
      */
     @Override
     public void stop() {
+        // Make sure edits still waiting in the save queue reach the disk
+        VaultWriter.closeAll();
         Platform.exit();
     }
 
@@ -0,0 +1,301 @@
+package com.himanshu.securex.auth;
+
+import com.himanshu.securex.model.PasswordEntry;
+import com.himanshu.securex.services.BackupReencryptionJob;
+import com.himanshu.securex.services.CryptoService;
+import com.himanshu.securex.services.SettingsService;
+import com.himanshu.securex.services.StorageService;
+import com.himanshu.securex.util.HashUtil;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.util.*;
+
+public class AuthManager {
+    private static final Path APP_DIR = Paths.get(System.getProperty("user.home"), ".securex");
+    private static final Path MASTER_FILE_PATH = APP_DIR.resolve("master.dat");
+
+    // HKDF labels for the subkeys of the master password derivation
+    private static final String VERIFIER_INFO = "securex/verifier";
+    private static final String KEY_WRAPPING_INFO = "securex/key-wrapping";
+    private static final int SUBKEY_LENGTH = 32;
+
+    // Shared across instances, so the settings dialog can show what the login measured
+    private static volatile long lastDerivationMillis = -1;
+
+    private final int kdfTargetMillis;
+
+    public AuthManager() {
+        this(new SettingsService().getKdfTargetMillis());
+    }
+
+    /**
+     * @param kdfTargetMillis The time new master keys should take to derive on this machine.
+     */
+    public AuthManager(int kdfTargetMillis) {
+        this.kdfTargetMillis = kdfTargetMillis;
+        if (!Files.exists(APP_DIR)) {
+            try {
+                Files.createDirectories(APP_DIR);
+            } catch (IOException e) {
+                e.printStackTrace();
+                throw new RuntimeException("Could not create application data directory.");
+            }
+        }
+    }
+
+    public boolean masterPasswordExists() {
+        return Files.exists(MASTER_FILE_PATH);
+    }
+
+    /**
+     * Creates master.dat for a new vault, with a fresh data key wrapped by the password.
+     */
+    public boolean saveMasterPassword(char[] password) {
+        byte[] dataKey = CryptoService.generateDataKey();
+        try {
+            writeMasterFileAtomic(createRecord(password, dataKey).toJson());
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            Arrays.fill(dataKey, (byte) 0);
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    /**
+     * Verifies the password and opens the vault's data key with a single key derivation.
+     * A vault from before the data key was introduced is migrated to one first.
+     * @return The service for the vault's key, or null if the password is wrong.
+     */
+    public CryptoService unlock(char[] password) {
+        try {
+            if (!masterPasswordExists()) return null;
+            MasterRecord record = readRecord();
+            if (record.isLegacy()) {
+                if (!HashUtil.verifyPassword(Arrays.copyOf(password, password.length), record.getHash())) {
+                    return null;
+                }
+                try {
+                    migrateToDataKey(password, record, null);
+                    record = readRecord();
+                } catch (Exception e) {
+                    // Keep using the password-derived key; the migration is retried on the next unlock
+                    System.err.println("Warning: Could not migrate the vault to a data key: " + e.getMessage());
+                    return legacyCrypto(password, record);
+                }
+            }
+
+            byte[] dataKey = openDataKey(password, record);
+            if (dataKey == null) return null;
+            return new CryptoService(dataKey);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    /**
+     * Key derivation parameters of the current vault.
+     * @param iterations           The PBKDF2 iteration count in master.dat.
+     * @param lastDerivationMillis How long the last unlock spent deriving the key, or -1 if not measured.
+     */
+    public record KdfStatus(int iterations, long lastDerivationMillis) {
+    }
+
+    public KdfStatus getKdfStatus() {
+        int iterations = HashUtil.MIN_ITERATIONS;
+        try {
+            if (masterPasswordExists()) {
+                MasterRecord record = readRecord();
+                if (!record.isLegacy()) iterations = record.getIterations();
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: Could not read master.dat: " + e.getMessage());
+        }
+        return new KdfStatus(iterations, lastDerivationMillis);
+    }
+
+    /**
+     * Outcome of a master password change.
+     * @param success Whether master.dat now uses the new password.
+     * @param backups Outcome of re-encrypting the backups, or null if none were re-encrypted.
+     */
+    public record PasswordChangeResult(boolean success, BackupReencryptionJob.Result backups) {
+        static final PasswordChangeResult FAILED = new PasswordChangeResult(false, null);
+    }
+
+    /**
+     * Changes the master password by re-wrapping the vault's data key. The vault and backups are
+     * encrypted with the data key, so they are left untouched and the cost does not depend on
+     * their size. A legacy vault is migrated to a data key first, which re-encrypts the backups
+     * and reports progress to the listener; cancelling it leaves the old password in effect.
+     */
+    public PasswordChangeResult changeMasterPassword(char[] oldPassword,
+                                                     char[] newPassword,
+                                                     BackupReencryptionJob.ProgressListener listener) {
+        byte[] dataKey = null;
+        try {
+            if (!masterPasswordExists()) return PasswordChangeResult.FAILED;
+            MasterRecord record = readRecord();
+            BackupReencryptionJob.Result backups = null;
+            if (record.isLegacy()) {
+                if (!HashUtil.verifyPassword(Arrays.copyOf(oldPassword, oldPassword.length), record.getHash())) {
+                    return PasswordChangeResult.FAILED;
+                }
+                backups = migrateToDataKey(oldPassword, record, listener);
+                if (backups.cancelled()) {
+                    return new PasswordChangeResult(false, backups);
+                }
+                record = readRecord();
+            }
+
+            dataKey = openDataKey(oldPassword, record);
+            if (dataKey == null) return PasswordChangeResult.FAILED;
+            writeMasterFileAtomic(createRecord(newPassword, dataKey).toJson());
+            return new PasswordChangeResult(true, backups);
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            return PasswordChangeResult.FAILED;
+        } finally {
+            if (dataKey != null) {
+                Arrays.fill(dataKey, (byte) 0);
+            }
+            Arrays.fill(oldPassword, '\0');
+            Arrays.fill(newPassword, '\0');
+        }
+    }
+
+    /**
+     * Re-encrypts a vault that uses the password-derived key, and its backups, with a new data key,
+     * then records the wrapped data key in master.dat.
+     */
+    private BackupReencryptionJob.Result migrateToDataKey(char[] password,
+                                                          MasterRecord legacy,
+                                                          BackupReencryptionJob.ProgressListener listener) throws Exception {
+        CryptoService oldCrypto = legacyCrypto(password, legacy);
+        byte[] dataKey = CryptoService.generateDataKey();
+        try {
+            CryptoService newCrypto = new CryptoService(Arrays.copyOf(dataKey, dataKey.length));
+
+            // 1. Read the vault with the OLD key, letting any pending compaction finish first.
+            StorageService oldStorage = new StorageService(oldCrypto);
+            List<PasswordEntry> entries;
+            try {
+                entries = oldStorage.load();
+            } finally {
+                oldStorage.close();
+            }
+
+            // 2. Re-encrypt the backups into staged files; nothing has been switched over yet.
+            BackupReencryptionJob job = new BackupReencryptionJob(oldStorage, oldCrypto, newCrypto);
+            BackupReencryptionJob.Result backups = job.prepare(listener);
+            if (backups.cancelled()) {
+                return backups;
+            }
+
+            try {
+                // 3. Save entries with the data key WITHOUT trying to backup again.
+                StorageService newStorage = new StorageService(newCrypto);
+                try {
+                    newStorage.saveWithoutBackup(entries);
+                } finally {
+                    newStorage.close();
+                }
+
+                // 4. Swap master.dat
+                writeMasterFileAtomic(createRecord(password, dataKey).toJson());
+            } catch (Exception e) {
+                job.discard();
+                throw e;
+            }
+
+            // 5. Move the re-encrypted backups into place
+            Map<Path, String> notMoved = job.commit();
+            Map<Path, String> skipped = new LinkedHashMap<>(backups.skipped());
+            skipped.putAll(notMoved);
+            return new BackupReencryptionJob.Result(
+                    backups.total(), backups.reencrypted() - notMoved.size(), skipped, false);
+        } finally {
+            Arrays.fill(dataKey, (byte) 0);
+        }
+    }
+
+    /**
+     * Builds a master record that verifies {@code password} and holds {@code dataKey} wrapped with
+     * a key derived from it. The iteration count is calibrated to the configured unlock time.
+     * PBKDF2 runs once; its output is expanded into the verifier and the
+     * key-wrapping key, so neither can be computed from the other.
+     */
+    private MasterRecord createRecord(char[] password, byte[] dataKey) throws Exception {
+        byte[] salt = HashUtil.generateSalt();
+        // Re-tuned every time, so the cost follows the machine the vault is used on
+        int iterations = HashUtil.calibrate(kdfTargetMillis).iterations();
+        byte[] derived = HashUtil.deriveKey(password, salt, iterations);
+        try {
+            byte[] verifier = HashUtil.expand(derived, VERIFIER_INFO, SUBKEY_LENGTH);
+            CryptoService kek = new CryptoService(HashUtil.expand(derived, KEY_WRAPPING_INFO, SUBKEY_LENGTH));
+            return MasterRecord.create(salt, iterations, verifier, kek.wrapKey(dataKey));
+        } finally {
+            Arrays.fill(derived, (byte) 0);
+        }
+    }
+
+    /**
+     * Verifies the password against the record and unwraps the data key.
+     * @return The data key, or null if the password is wrong. The caller should wipe it after use.
+     */
+    private byte[] openDataKey(char[] password, MasterRecord record) throws Exception {
+        long start = System.nanoTime();
+        byte[] derived = HashUtil.deriveKey(password, record.getSalt(), record.getIterations());
+        lastDerivationMillis = (System.nanoTime() - start) / 1_000_000;
+        byte[] verifier = null;
+        try {
+            verifier = HashUtil.expand(derived, VERIFIER_INFO, SUBKEY_LENGTH);
+            if (!MessageDigest.isEqual(verifier, record.getVerifier())) {
+                return null;
+            }
+            CryptoService kek = new CryptoService(HashUtil.expand(derived, KEY_WRAPPING_INFO, SUBKEY_LENGTH));
+            return kek.unwrapKey(record.getWrappedKey());
+        } finally {
+            Arrays.fill(derived, (byte) 0);
+            if (verifier != null) {
+                Arrays.fill(verifier, (byte) 0);
+            }
+        }
+    }
+
+    private CryptoService legacyCrypto(char[] password, MasterRecord legacy) {
+        return new CryptoService(Arrays.copyOf(password, password.length), HashUtil.extractSaltFromHash(legacy.getHash()));
+    }
+
+    private MasterRecord readRecord() throws IOException {
+        return MasterRecord.parse(Files.readString(MASTER_FILE_PATH));
+    }
+
+    private void writeMasterFileAtomic(String content) throws IOException {
+        Path temp = APP_DIR.resolve("master.tmp");
+        Files.writeString(temp, content, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        try {
+            if (!System.getProperty("os.name").toLowerCase().contains("win")) {
+                Set<PosixFilePermission> perms = PosixFilePermissions.fromString("rw-------");
+                Files.setPosixFilePermissions(temp, perms);
+            }
+        } catch (UnsupportedOperationException ignored) {}
+
+        try {
+            Files.move(temp, MASTER_FILE_PATH, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException atomicEx) {
+            Files.move(temp, MASTER_FILE_PATH, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
\ No newline at end of file
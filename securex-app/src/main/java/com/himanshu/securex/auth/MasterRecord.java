@@ -0,0 +1,103 @@
+package com.himanshu.securex.auth;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * The contents of master.dat, parsed once per operation.
+ *
+ * Current records are a small JSON object. A single PBKDF2 run over the master password is
+ * expanded into a verifier, stored here, and a key-wrapping key that protects the vault's data key:
+ * <pre>
+ *   {"version": 3, "salt": "...", "iterations": 65536, "verifier": "...", "wrappedKey": "..."}
+ * </pre>
+ * Older records are only the Base64 hash, with the vault encrypted by a key derived from the
+ * password directly. Such records are read as legacy records ({@link #isLegacy()}).
+ */
+final class MasterRecord {
+
+    static final int VERSION = 3;
+
+    private final int version;
+    private final byte[] salt;
+    private final int iterations;
+    private final byte[] verifier;
+    private final String wrappedKey;
+    // Legacy records only
+    private final String hash;
+
+    private MasterRecord(int version, byte[] salt, int iterations, byte[] verifier,
+                         String wrappedKey, String hash) {
+        this.version = version;
+        this.salt = salt;
+        this.iterations = iterations;
+        this.verifier = verifier;
+        this.wrappedKey = wrappedKey;
+        this.hash = hash;
+    }
+
+    static MasterRecord create(byte[] salt, int iterations, byte[] verifier, String wrappedKey) {
+        return new MasterRecord(VERSION, salt, iterations, verifier, wrappedKey, null);
+    }
+
+    static MasterRecord parse(String content) throws IOException {
+        String trimmed = content.trim();
+        if (!trimmed.startsWith("{")) {
+            return new MasterRecord(1, null, 0, null, null, trimmed);
+        }
+        Base64.Decoder b64 = Base64.getDecoder();
+        JsonObject json = JsonParser.parseString(trimmed).getAsJsonObject();
+        int version = json.has("version") ? json.get("version").getAsInt() : -1;
+        if (version != VERSION) {
+            throw new IOException("Unsupported master.dat version " + version + ".");
+        }
+        return new MasterRecord(version,
+                b64.decode(json.get("salt").getAsString()),
+                json.get("iterations").getAsInt(),
+                b64.decode(json.get("verifier").getAsString()),
+                json.get("wrappedKey").getAsString(),
+                null);
+    }
+
+    String toJson() {
+        Base64.Encoder b64 = Base64.getEncoder();
+        JsonObject json = new JsonObject();
+        json.addProperty("version", version);
+        json.addProperty("salt", b64.encodeToString(salt));
+        json.addProperty("iterations", iterations);
+        json.addProperty("verifier", b64.encodeToString(verifier));
+        json.addProperty("wrappedKey", wrappedKey);
+        return json.toString();
+    }
+
+    /**
+     * @return true if the record predates the data key, so the vault is still encrypted with a
+     * key derived from the password and the salt of {@link #getHash()}.
+     */
+    boolean isLegacy() {
+        return version == 1;
+    }
+
+    byte[] getSalt() {
+        return salt;
+    }
+
+    int getIterations() {
+        return iterations;
+    }
+
+    byte[] getVerifier() {
+        return verifier;
+    }
+
+    String getHash() {
+        return hash;
+    }
+
+    String getWrappedKey() {
+        return wrappedKey;
+    }
+}
@@ -0,0 +1,174 @@
+package com.himanshu.securex.cli;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A connection to a running {@link VaultAgent}. One client can make any number of requests, one
+ * at a time; it is not thread-safe.
+ */
+public final class AgentClient implements Closeable {
+
+    /**
+     * The non-secret fields of an entry, as the agent reports them.
+     */
+    public record EntryInfo(String id, String name, String username, String url, long modifiedAt) {
+    }
+
+    /**
+     * An entry found by {@link #get}, with its password. The caller wipes the password once used.
+     */
+    public record Found(EntryInfo entry, char[] password) {
+    }
+
+    /**
+     * Thrown when the agent answers a request with an error, e.g. because no entry has the name.
+     */
+    public static final class AgentException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        AgentException(String message) {
+            super(message);
+        }
+    }
+
+    private final AgentConnection connection;
+
+    private AgentClient(AgentConnection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Connects to the agent listening on {@code socket}.
+     * @throws IOException If no agent is listening there.
+     */
+    public static AgentClient connect(Path socket) throws IOException {
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new AgentClient(new AgentConnection(channel));
+    }
+
+    /**
+     * @return A client for the agent on {@code socket}, or null if none is running.
+     */
+    public static AgentClient connectIfRunning(Path socket) {
+        if (!Files.exists(socket)) return null;
+        try {
+            return connect(socket);
+        } catch (IOException e) {
+            // A socket left behind by an agent that was killed
+            return null;
+        }
+    }
+
+    /**
+     * @return Whether an agent answers on {@code socket}.
+     */
+    public static boolean isRunning(Path socket) {
+        try (AgentClient client = connectIfRunning(socket)) {
+            if (client == null) return false;
+            client.ping();
+            return true;
+        } catch (IOException | AgentException e) {
+            return false;
+        }
+    }
+
+    public void ping() throws IOException, AgentException {
+        request("PING", "");
+    }
+
+    public List<EntryInfo> list() throws IOException, AgentException {
+        return entries(request("LIST", ""));
+    }
+
+    public List<EntryInfo> search(String query) throws IOException, AgentException {
+        return entries(request("SEARCH", query));
+    }
+
+    /**
+     * Looks up an entry by id, or by name if only one entry has it.
+     */
+    public Found get(String nameOrId) throws IOException, AgentException {
+        int count = request("GET", nameOrId);
+        char[][] fields = receive();
+        try {
+            if (count != 1 || fields.length != 6) throw new IOException("Unexpected reply from the agent");
+            EntryInfo entry = info(fields);
+            return new Found(entry, Arrays.copyOf(fields[5], fields[5].length));
+        } finally {
+            AgentConnection.wipe(fields);
+        }
+    }
+
+    /**
+     * Asks the agent to wipe the vault and exit.
+     */
+    public void stop() throws IOException, AgentException {
+        request("STOP", "");
+    }
+
+    /**
+     * Sends a request and reads the status line of the reply.
+     * @return The number of entry lines that follow.
+     */
+    private int request(String verb, String argument) throws IOException, AgentException {
+        connection.send(verb, argument);
+        connection.flush();
+        char[][] status = receive();
+        try {
+            String code = new String(status[0]);
+            String detail = status.length > 1 ? new String(status[1]) : "";
+            if (code.equals("ERR")) throw new AgentException(detail);
+            if (!code.equals("OK")) throw new IOException("Unexpected reply from the agent");
+            return Integer.parseInt(detail);
+        } catch (NumberFormatException e) {
+            throw new IOException("Unexpected reply from the agent");
+        } finally {
+            AgentConnection.wipe(status);
+        }
+    }
+
+    private List<EntryInfo> entries(int count) throws IOException {
+        List<EntryInfo> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            char[][] fields = receive();
+            if (fields.length < 5) throw new IOException("Unexpected reply from the agent");
+            entries.add(info(fields));
+        }
+        return entries;
+    }
+
+    private char[][] receive() throws IOException {
+        char[][] fields = connection.receive();
+        if (fields == null) throw new IOException("The agent closed the connection");
+        return fields;
+    }
+
+    private static EntryInfo info(char[][] fields) throws IOException {
+        try {
+            return new EntryInfo(new String(fields[0]), new String(fields[1]), new String(fields[2]),
+                    new String(fields[3]), Long.parseLong(new String(fields[4])));
+        } catch (NumberFormatException e) {
+            throw new IOException("Unexpected reply from the agent");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        connection.close();
+    }
+}
@@ -0,0 +1,176 @@
+package com.himanshu.securex.cli;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One end of a connection between the command line and the {@link VaultAgent}.
+ *
+ * Both directions carry UTF-8 lines of tab-separated fields, with backslash, tab, CR and newline
+ * escaped inside a field. A request is a verb and its argument ({@code GET\tgithub}); the response
+ * is {@code OK\t<n>} followed by n lines of entries, or {@code ERR\t<message>}.
+ *
+ * Lines may carry a password, so they are only ever held in char and byte arrays that are wiped
+ * once used; fields come back as char arrays for the same reason.
+ */
+final class AgentConnection implements Closeable {
+
+    // A request or response line larger than this is not from a well-behaved peer
+    private static final int MAX_LINE_BYTES = 4 * 1024 * 1024;
+
+    private final SocketChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private final ByteBuffer input = ByteBuffer.allocate(8192).flip();
+
+    private char[] pending = new char[256];
+    private int pendingLength = 0;
+
+    AgentConnection(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Queues a line made of the given fields; {@link #flush()} sends it.
+     */
+    void send(char[]... fields) {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) append('\t');
+            for (char c : fields[i]) {
+                switch (c) {
+                    case '\\' -> { append('\\'); append('\\'); }
+                    case '\t' -> { append('\\'); append('t'); }
+                    case '\n' -> { append('\\'); append('n'); }
+                    case '\r' -> { append('\\'); append('r'); }
+                    default -> append(c);
+                }
+            }
+        }
+        append('\n');
+    }
+
+    void send(String... fields) {
+        char[][] chars = new char[fields.length][];
+        for (int i = 0; i < fields.length; i++) {
+            chars[i] = fields[i] != null ? fields[i].toCharArray() : new char[0];
+        }
+        send(chars);
+    }
+
+    private void append(char c) {
+        if (pendingLength == pending.length) {
+            char[] grown = Arrays.copyOf(pending, pending.length * 2);
+            Arrays.fill(pending, '\0');
+            pending = grown;
+        }
+        pending[pendingLength++] = c;
+    }
+
+    void flush() throws IOException {
+        if (pendingLength == 0) return;
+        ByteBuffer bytes = encoder.reset().encode(CharBuffer.wrap(pending, 0, pendingLength));
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } finally {
+            Arrays.fill(bytes.array(), (byte) 0);
+            Arrays.fill(pending, 0, pendingLength, '\0');
+            pendingLength = 0;
+        }
+    }
+
+    /**
+     * Reads the next line and splits it into its fields.
+     * @return The fields, which the caller wipes once used, or null if the peer closed the connection.
+     */
+    char[][] receive() throws IOException {
+        byte[] line = new byte[256];
+        int length = 0;
+        try {
+            while (true) {
+                if (!input.hasRemaining()) {
+                    input.clear();
+                    int n = channel.read(input);
+                    input.flip();
+                    if (n < 0) {
+                        if (length == 0) return null;
+                        throw new EOFException("Connection closed in the middle of a line");
+                    }
+                    continue;
+                }
+                byte b = input.get();
+                if (b == '\n') break;
+                if (length == line.length) {
+                    if (length >= MAX_LINE_BYTES) throw new IOException("Line too long");
+                    byte[] grown = Arrays.copyOf(line, length * 2);
+                    Arrays.fill(line, (byte) 0);
+                    line = grown;
+                }
+                line[length++] = b;
+            }
+            return split(line, length);
+        } finally {
+            Arrays.fill(line, (byte) 0);
+        }
+    }
+
+    private char[][] split(byte[] line, int length) throws CharacterCodingException {
+        CharBuffer chars = decoder.reset().decode(ByteBuffer.wrap(line, 0, length));
+        char[] text = chars.array();
+        char[] field = new char[chars.remaining()];
+        try {
+            List<char[]> fields = new ArrayList<>();
+            int fieldLength = 0;
+            for (int i = chars.position(); i < chars.limit(); i++) {
+                char c = text[i];
+                if (c == '\t') {
+                    fields.add(Arrays.copyOf(field, fieldLength));
+                    fieldLength = 0;
+                } else if (c == '\\' && i + 1 < chars.limit()) {
+                    char escaped = text[++i];
+                    field[fieldLength++] = switch (escaped) {
+                        case 't' -> '\t';
+                        case 'n' -> '\n';
+                        case 'r' -> '\r';
+                        default -> escaped;
+                    };
+                } else {
+                    field[fieldLength++] = c;
+                }
+            }
+            fields.add(Arrays.copyOf(field, fieldLength));
+            return fields.toArray(new char[0][]);
+        } finally {
+            Arrays.fill(text, '\0');
+            Arrays.fill(field, '\0');
+        }
+    }
+
+    /**
+     * Wipes all fields of a received line.
+     */
+    static void wipe(char[][] fields) {
+        if (fields == null) return;
+        for (char[] field : fields) {
+            Arrays.fill(field, '\0');
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        Arrays.fill(pending, '\0');
+        channel.close();
+    }
+}
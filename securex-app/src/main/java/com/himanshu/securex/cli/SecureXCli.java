@@ -0,0 +1,491 @@
+package com.himanshu.securex.cli;
+
+import com.himanshu.securex.auth.AuthManager;
+import com.himanshu.securex.model.PasswordEntry;
+import com.himanshu.securex.services.CryptoService;
+import com.himanshu.securex.services.SettingsService;
+import com.himanshu.securex.services.StorageService;
+import com.himanshu.securex.util.PasswordGenerator;
+
+import java.io.Console;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The {@code securex} command line, for looking up and adding entries from scripts.
+ *
+ * It opens the same vault as the app through {@link AuthManager} and {@link StorageService}, but
+ * never touches JavaFX, so a lookup costs JVM startup plus the key derivation. The master password
+ * is read from the console without echo, or from the first line of standard input when there is
+ * no console (e.g. {@code pass-cmd | securex get github}).
+ *
+ * When a {@link VaultAgent} is running ({@code securex agent}), lookups are sent to it instead and
+ * need no password; {@code add} always opens the vault itself.
+ *
+ * Output is plain text meant for pipes, or JSON with {@code --json}. Exit codes: 0 on success,
+ * 1 if an entry is not found or an operation fails, 2 for usage errors, 3 for a wrong password.
+ */
+public final class SecureXCli {
+
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_FAILED = 1;
+    private static final int EXIT_USAGE = 2;
+    private static final int EXIT_LOCKED = 3;
+
+    private static final int DEFAULT_PASSWORD_LENGTH = 20;
+
+    private static final String USAGE = """
+            Usage: securex <command> [options]
+
+            Commands:
+              get <name|id> [--field password|username|url|id]
+                                 Print one field of an entry (the password by default)
+              list               List all entries
+              search <query>     List entries whose name, username or URL contains the query
+              add <name> [--username <u>] [--url <url>] [--generate [--length <n>]]
+                                 Add an entry; the password is prompted for unless generated
+              generate [--length <n>]
+                                 Print a random password; does not open the vault
+              agent [start|stop|status]
+                                 Keep the vault unlocked for later lookups until stopped
+                                 or idle for the app's auto-lock time
+
+            Options:
+              --json             Print JSON instead of plain text
+              --no-agent         Open the vault even if an agent is running
+              --help             Show this help
+            """;
+
+    /**
+     * Thrown for problems that end the command with a message and an exit code.
+     */
+    private static final class CliException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final int exitCode;
+
+        CliException(int exitCode, String message) {
+            super(message);
+            this.exitCode = exitCode;
+        }
+    }
+
+    private final PrintStream out;
+    private final PrintStream err;
+    private final Reader stdin;
+
+    private String command;
+    private final List<String> positional = new ArrayList<>();
+    private boolean json = false;
+    private boolean generate = false;
+    private boolean useAgent = true;
+    private String field = "password";
+    private String username = "";
+    private String url = "";
+    private int length = DEFAULT_PASSWORD_LENGTH;
+
+    private SecureXCli(PrintStream out, PrintStream err, Reader stdin) {
+        this.out = out;
+        this.err = err;
+        this.stdin = stdin;
+    }
+
+    public static void main(String[] args) {
+        SecureXCli cli = new SecureXCli(System.out, System.err,
+                new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        int exitCode = cli.run(args);
+        System.out.flush();
+        // The vault's background threads are daemons; exit without waiting on anything else
+        System.exit(exitCode);
+    }
+
+    private int run(String[] args) {
+        try {
+            parse(args);
+            if (command == null || command.equals("help")) {
+                out.print(USAGE);
+                return command == null ? EXIT_USAGE : EXIT_OK;
+            }
+            switch (command) {
+                case "generate" -> generate();
+                case "get", "list", "search", "add" -> withVault();
+                case "agent" -> agent();
+                default -> throw new CliException(EXIT_USAGE, "Unknown command '" + command + "'. Run 'securex --help'.");
+            }
+            return EXIT_OK;
+        } catch (CliException e) {
+            err.println("securex: " + e.getMessage());
+            return e.exitCode;
+        } catch (Exception e) {
+            err.println("securex: " + e.getMessage());
+            return EXIT_FAILED;
+        }
+    }
+
+    private void parse(String[] args) throws CliException {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--json" -> json = true;
+                case "--generate" -> generate = true;
+                case "--no-agent" -> useAgent = false;
+                case "--help", "-h" -> command = "help";
+                case "--field" -> field = value(args, ++i, arg);
+                case "--username" -> username = value(args, ++i, arg);
+                case "--url" -> url = value(args, ++i, arg);
+                case "--length" -> {
+                    try {
+                        length = Integer.parseInt(value(args, ++i, arg));
+                    } catch (NumberFormatException e) {
+                        throw new CliException(EXIT_USAGE, "--length needs a number.");
+                    }
+                    if (length < 4 || length > 1024) {
+                        throw new CliException(EXIT_USAGE, "--length must be between 4 and 1024.");
+                    }
+                }
+                default -> {
+                    if (arg.startsWith("--")) {
+                        throw new CliException(EXIT_USAGE, "Unknown option '" + arg + "'.");
+                    }
+                    if (command == null) {
+                        command = arg;
+                    } else if (!command.equals("help")) {
+                        positional.add(arg);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String value(String[] args, int i, String option) throws CliException {
+        if (i >= args.length) throw new CliException(EXIT_USAGE, option + " needs a value.");
+        return args[i];
+    }
+
+    private String argument(String name) throws CliException {
+        if (positional.size() != 1) {
+            throw new CliException(EXIT_USAGE, "'" + command + "' takes one " + name + ". Run 'securex --help'.");
+        }
+        return positional.get(0);
+    }
+
+    private void generate() {
+        char[] password = PasswordGenerator.generatePassword(length);
+        try {
+            if (json) {
+                out.print("{\"password\": ");
+                writeJsonString(password);
+                out.println("}");
+            } else {
+                out.println(password);
+            }
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    private void withVault() throws Exception {
+        // Checked before prompting, so a typo does not cost a key derivation
+        String target = command.equals("list") ? null : argument(command.equals("search") ? "query" : "name");
+        if (command.equals("get") && !List.of("password", "username", "url", "id").contains(field)) {
+            throw new CliException(EXIT_USAGE, "Unknown field '" + field + "'.");
+        }
+        if (useAgent && !command.equals("add") && withAgent(target)) {
+            return;
+        }
+
+        VaultView view = VaultView.open(new StorageService(unlock()));
+        try {
+            switch (command) {
+                case "get" -> {
+                    PasswordEntry entry;
+                    try {
+                        entry = view.find(target);
+                    } catch (VaultView.LookupException e) {
+                        throw new CliException(EXIT_FAILED, e.getMessage());
+                    }
+                    get(info(entry), entry.getPassword());
+                }
+                case "list" -> list(info(view.list()));
+                case "search" -> list(info(view.search(target)));
+                case "add" -> add(view.storage(), target);
+                default -> throw new IllegalStateException(command);
+            }
+        } finally {
+            view.close();
+        }
+    }
+
+    /**
+     * Answers the command through a running agent.
+     * @return False if no agent is running, or it went away before answering.
+     */
+    private boolean withAgent(String target) throws CliException {
+        AgentClient.Found found;
+        List<AgentClient.EntryInfo> entries = null;
+        try (AgentClient client = AgentClient.connectIfRunning(VaultAgent.defaultSocket())) {
+            if (client == null) return false;
+            switch (command) {
+                case "get" -> found = client.get(target);
+                case "list" -> {
+                    found = null;
+                    entries = client.list();
+                }
+                case "search" -> {
+                    found = null;
+                    entries = client.search(target);
+                }
+                default -> throw new IllegalStateException(command);
+            }
+        } catch (AgentClient.AgentException e) {
+            throw new CliException(EXIT_FAILED, e.getMessage());
+        } catch (IOException e) {
+            return false;
+        }
+        if (found != null) {
+            get(found.entry(), found.password());
+        } else {
+            list(entries);
+        }
+        return true;
+    }
+
+    /**
+     * Prompts for the master password and derives the vault's key.
+     */
+    private CryptoService unlock() throws IOException, CliException {
+        AuthManager authManager = new AuthManager();
+        if (!authManager.masterPasswordExists()) {
+            throw new CliException(EXIT_FAILED, "No vault found. Create one in the SecureX app first.");
+        }
+        // unlock() wipes the password
+        CryptoService cryptoService = authManager.unlock(readSecret("Master password: "));
+        if (cryptoService == null) {
+            throw new CliException(EXIT_LOCKED, "Incorrect password.");
+        }
+        return cryptoService;
+    }
+
+    /**
+     * Prints the requested field of an entry, then wipes its password.
+     */
+    private void get(AgentClient.EntryInfo entry, char[] password) throws CliException {
+        try {
+            if (json) {
+                out.print('{');
+                writeFields(entry);
+                out.print(", \"password\": ");
+                writeJsonString(password);
+                out.println('}');
+                return;
+            }
+            switch (field) {
+                case "password" -> out.println(password);
+                case "username" -> out.println(entry.username());
+                case "url" -> out.println(entry.url());
+                case "id" -> out.println(entry.id());
+                default -> throw new CliException(EXIT_USAGE, "Unknown field '" + field + "'.");
+            }
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    /**
+     * Prints entries, which are already sorted by name.
+     */
+    private void list(List<AgentClient.EntryInfo> entries) {
+        if (json) {
+            out.print('[');
+            for (int i = 0; i < entries.size(); i++) {
+                out.print(i == 0 ? "\n  {" : ",\n  {");
+                writeFields(entries.get(i));
+                out.print('}');
+            }
+            out.println(entries.isEmpty() ? "]" : "\n]");
+            return;
+        }
+        // Tab-separated, so the output can be cut into columns
+        for (AgentClient.EntryInfo entry : entries) {
+            out.println(entry.name() + '\t' + entry.username() + '\t' + entry.url());
+        }
+    }
+
+    private void agent() throws Exception {
+        String action = positional.isEmpty() ? "start" : argument("action");
+        Path socket = VaultAgent.defaultSocket();
+        switch (action) {
+            case "start" -> {
+                if (AgentClient.isRunning(socket)) {
+                    throw new CliException(EXIT_FAILED, "An agent is already running.");
+                }
+                int timeoutMinutes = new SettingsService().getAutoLockTimeout();
+                VaultAgent agent = new VaultAgent(new StorageService(unlock()), socket, timeoutMinutes);
+                agent.start();
+                // Removes the socket and wipes the vault on Ctrl+C or kill, too
+                Runtime.getRuntime().addShutdownHook(new Thread(agent::close, "securex-agent-shutdown"));
+                err.println("Agent running on " + socket + (timeoutMinutes > 0
+                        ? "; it locks after " + timeoutMinutes + " min without requests."
+                        : "; auto-lock is off, so it runs until stopped."));
+                err.println("Stop it with 'securex agent stop'.");
+                agent.awaitTermination();
+            }
+            case "stop", "status" -> {
+                try (AgentClient client = AgentClient.connectIfRunning(socket)) {
+                    if (client == null) throw new CliException(EXIT_FAILED, "No agent is running.");
+                    if (action.equals("stop")) {
+                        client.stop();
+                        err.println("Agent stopped.");
+                    } else {
+                        client.ping();
+                        out.println("Agent running on " + socket + ".");
+                    }
+                } catch (IOException | AgentClient.AgentException e) {
+                    throw new CliException(EXIT_FAILED, "No agent is running.");
+                }
+            }
+            default -> throw new CliException(EXIT_USAGE, "Unknown agent action '" + action + "'.");
+        }
+    }
+
+    private void add(StorageService storage, String name) throws Exception {
+        char[] password = generate
+                ? PasswordGenerator.generatePassword(length)
+                : readSecret("Password for " + name + ": ");
+        try {
+            if (password.length == 0) {
+                throw new CliException(EXIT_USAGE, "The password cannot be empty.");
+            }
+            PasswordEntry entry = new PasswordEntry(name, username, password, url);
+            storage.attach(entry);
+            storage.put(entry);
+
+            if (json) {
+                out.print('{');
+                writeFields(info(entry));
+                if (generate) {
+                    out.print(", \"password\": ");
+                    writeJsonString(password);
+                }
+                out.println('}');
+            } else if (generate) {
+                // The generated password is the useful output, e.g. to pass on to the service
+                out.println(password);
+            } else {
+                err.println("Added " + name + " (" + entry.getId() + ").");
+            }
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    /**
+     * Reads a secret from the console without echo, or else a line from standard input.
+     */
+    private char[] readSecret(String prompt) throws IOException, CliException {
+        Console console = System.console();
+        if (console != null) {
+            char[] secret = console.readPassword(prompt);
+            if (secret == null) throw new CliException(EXIT_USAGE, "No password given.");
+            return secret;
+        }
+        return readLine(stdin);
+    }
+
+    /**
+     * Reads one line into a char array, without ever holding it in a String. Buffers that are
+     * outgrown are wiped.
+     */
+    private static char[] readLine(Reader reader) throws IOException {
+        char[] buffer = new char[64];
+        int length = 0;
+        int c;
+        while ((c = reader.read()) >= 0 && c != '\n') {
+            if (length == buffer.length) {
+                char[] grown = Arrays.copyOf(buffer, buffer.length * 2);
+                Arrays.fill(buffer, '\0');
+                buffer = grown;
+            }
+            buffer[length++] = (char) c;
+        }
+        if (length > 0 && buffer[length - 1] == '\r') length--;
+        char[] line = Arrays.copyOf(buffer, length);
+        Arrays.fill(buffer, '\0');
+        return line;
+    }
+
+    private static AgentClient.EntryInfo info(PasswordEntry entry) {
+        return new AgentClient.EntryInfo(nullToEmpty(entry.getId()), nullToEmpty(entry.getAccount()),
+                nullToEmpty(entry.getUsername()), nullToEmpty(entry.getUrl()), entry.getModifiedAt());
+    }
+
+    private static List<AgentClient.EntryInfo> info(List<PasswordEntry> entries) {
+        List<AgentClient.EntryInfo> infos = new ArrayList<>(entries.size());
+        for (PasswordEntry entry : entries) {
+            infos.add(info(entry));
+        }
+        return infos;
+    }
+
+    private void writeFields(AgentClient.EntryInfo entry) {
+        out.print("\"id\": ");
+        writeJsonString(entry.id().toCharArray());
+        out.print(", \"name\": ");
+        writeJsonString(entry.name().toCharArray());
+        out.print(", \"username\": ");
+        writeJsonString(entry.username().toCharArray());
+        out.print(", \"url\": ");
+        writeJsonString(entry.url().toCharArray());
+        if (entry.modifiedAt() > 0) {
+            out.print(", \"modified\": \"" + Instant.ofEpochMilli(entry.modifiedAt()) + '"');
+        }
+    }
+
+    /**
+     * Writes a JSON string through a char array, so a password is never turned into a String.
+     */
+    private void writeJsonString(char[] value) {
+        // Every char escapes to at most six
+        char[] escaped = new char[value.length * 6 + 2];
+        int n = 0;
+        escaped[n++] = '"';
+        for (char c : value) {
+            switch (c) {
+                case '"', '\\' -> {
+                    escaped[n++] = '\\';
+                    escaped[n++] = c;
+                }
+                case '\n' -> { escaped[n++] = '\\'; escaped[n++] = 'n'; }
+                case '\r' -> { escaped[n++] = '\\'; escaped[n++] = 'r'; }
+                case '\t' -> { escaped[n++] = '\\'; escaped[n++] = 't'; }
+                default -> {
+                    if (c < 0x20) {
+                        String hex = String.format(Locale.ROOT, "\\u%04x", (int) c);
+                        hex.getChars(0, hex.length(), escaped, n);
+                        n += hex.length();
+                    } else {
+                        escaped[n++] = c;
+                    }
+                }
+            }
+        }
+        escaped[n++] = '"';
+        char[] text = Arrays.copyOf(escaped, n);
+        out.print(text);
+        Arrays.fill(escaped, '\0');
+        Arrays.fill(text, '\0');
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,267 @@
+package com.himanshu.securex.cli;
+
+import com.himanshu.securex.model.PasswordEntry;
+import com.himanshu.securex.services.StorageService;
+import jdk.net.ExtendedSocketOptions;
+import jdk.net.UnixDomainPrincipal;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A background process that keeps the vault unlocked for the command line, like ssh-agent does for
+ * keys: the master password is entered once, and later lookups skip the key derivation and vault
+ * decryption and take microseconds once connected.
+ *
+ * The agent listens on a Unix domain socket in the app directory that only the owner can use, and
+ * additionally rejects connections from other users where the OS reports the peer. Each connection
+ * is served by its own virtual thread, so hundreds of scripts can query it at once. The vault is
+ * reloaded when the app or another command writes it, and the agent shuts down, wiping the vault,
+ * after the same idle time as the app's auto-lock (never, if auto-lock is disabled).
+ */
+public final class VaultAgent implements AutoCloseable {
+
+    private static final Path DEFAULT_SOCKET = Paths.get(System.getProperty("user.home"), ".securex", "agent.sock");
+
+    private final StorageService storage;
+    private final Path socket;
+    private final long idleTimeoutNanos;
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private volatile long lastActivity = System.nanoTime();
+
+    private VaultView view;
+    private ServerSocketChannel server;
+    private ExecutorService connections;
+    private ScheduledExecutorService idleTimer;
+    private UserPrincipal owner;
+
+    /**
+     * @param storage            The storage service of the unlocked vault; the agent closes it.
+     * @param socket             Where to listen.
+     * @param idleTimeoutMinutes Minutes without a request before the agent shuts down, or -1 for never.
+     */
+    public VaultAgent(StorageService storage, Path socket, int idleTimeoutMinutes) {
+        this.storage = storage;
+        this.socket = socket;
+        this.idleTimeoutNanos = idleTimeoutMinutes > 0 ? TimeUnit.MINUTES.toNanos(idleTimeoutMinutes) : -1;
+    }
+
+    /**
+     * @return The socket the agent listens on by default, ~/.securex/agent.sock.
+     */
+    public static Path defaultSocket() {
+        return DEFAULT_SOCKET;
+    }
+
+    /**
+     * Loads the vault and starts accepting connections.
+     * @throws IOException If another agent is already listening on the socket.
+     */
+    public void start() throws Exception {
+        if (Files.exists(socket)) {
+            if (AgentClient.isRunning(socket)) {
+                throw new IOException("An agent is already running on " + socket + ".");
+            }
+            // Left behind by an agent that was killed
+            Files.delete(socket);
+        }
+        view = VaultView.open(storage);
+        owner = FileSystems.getDefault().getUserPrincipalLookupService()
+                .lookupPrincipalByName(System.getProperty("user.name"));
+
+        Files.createDirectories(socket.getParent());
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socket));
+        try {
+            Files.setPosixFilePermissions(socket, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system; the app directory's own permissions protect the socket
+        }
+
+        connections = Executors.newVirtualThreadPerTaskExecutor();
+        if (idleTimeoutNanos > 0) {
+            idleTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "securex-agent-idle-timer");
+                t.setDaemon(true);
+                return t;
+            });
+            idleTimer.schedule(this::checkIdle, idleTimeoutNanos, TimeUnit.NANOSECONDS);
+        }
+
+        Thread acceptor = new Thread(this::acceptLoop, "securex-agent-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Blocks until the agent has shut down, after a timeout or a {@code stop} request.
+     */
+    public void awaitTermination() throws InterruptedException {
+        terminated.await();
+    }
+
+    private void acceptLoop() {
+        while (!closed.get()) {
+            try {
+                SocketChannel client = server.accept();
+                connections.execute(() -> serve(client));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (!closed.get()) System.err.println("Warning: Agent could not accept a connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private void checkIdle() {
+        long idle = System.nanoTime() - lastActivity;
+        if (idle >= idleTimeoutNanos) {
+            System.err.println("securex agent: locked after " + TimeUnit.NANOSECONDS.toMinutes(idleTimeoutNanos)
+                    + " min without requests.");
+            close();
+        } else if (!closed.get()) {
+            idleTimer.schedule(this::checkIdle, idleTimeoutNanos - idle, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void serve(SocketChannel client) {
+        try (AgentConnection connection = new AgentConnection(client)) {
+            if (!isOwner(client)) return;
+            char[][] request;
+            while ((request = connection.receive()) != null) {
+                lastActivity = System.nanoTime();
+                try {
+                    if (!handle(request, connection)) return;
+                } finally {
+                    AgentConnection.wipe(request);
+                    connection.flush();
+                }
+            }
+        } catch (IOException e) {
+            // The client went away; nothing to clean up beyond the connection
+        }
+    }
+
+    private boolean isOwner(SocketChannel client) throws IOException {
+        try {
+            UnixDomainPrincipal peer = client.getOption(ExtendedSocketOptions.SO_PEERCRED);
+            return peer.user().equals(owner);
+        } catch (UnsupportedOperationException e) {
+            // The OS does not report peers; only the socket's permissions apply
+            return true;
+        }
+    }
+
+    /**
+     * Answers one request.
+     * @return False if the connection should be closed.
+     */
+    private boolean handle(char[][] request, AgentConnection connection) {
+        String verb = new String(request[0]);
+        String argument = request.length > 1 ? new String(request[1]) : "";
+        try {
+            view.refreshIfChanged();
+            switch (verb) {
+                case "PING" -> connection.send("OK", "0");
+                case "LIST" -> sendEntries(connection, view.list());
+                case "SEARCH" -> sendEntries(connection, view.search(argument));
+                case "GET" -> {
+                    PasswordEntry entry = view.find(argument);
+                    char[] password = entry.getPassword();
+                    try {
+                        connection.send("OK", "1");
+                        send(connection, fields(entry), password);
+                    } finally {
+                        Arrays.fill(password, '\0');
+                    }
+                }
+                case "STOP" -> {
+                    connection.send("OK", "0");
+                    // Answered first, so the client sees the stop succeed
+                    Thread.ofVirtual().start(this::close);
+                    return false;
+                }
+                default -> connection.send("ERR", "Unknown request '" + verb + "'.");
+            }
+        } catch (VaultView.LookupException e) {
+            connection.send("ERR", e.getMessage());
+        } catch (Exception e) {
+            connection.send("ERR", "The agent could not read the vault: " + e.getMessage());
+        }
+        return true;
+    }
+
+    private static void sendEntries(AgentConnection connection, List<PasswordEntry> entries) {
+        connection.send("OK", String.valueOf(entries.size()));
+        for (PasswordEntry entry : entries) {
+            connection.send(fields(entry));
+        }
+    }
+
+    private static char[][] fields(PasswordEntry entry) {
+        return new char[][] {
+                chars(entry.getId()), chars(entry.getAccount()), chars(entry.getUsername()),
+                chars(entry.getUrl()), String.valueOf(entry.getModifiedAt()).toCharArray()
+        };
+    }
+
+    private static char[] chars(String value) {
+        return value != null ? value.toCharArray() : new char[0];
+    }
+
+    private static void send(AgentConnection connection, char[][] fields, char[] password) {
+        char[][] line = Arrays.copyOf(fields, fields.length + 1);
+        line[fields.length] = password;
+        connection.send(line);
+    }
+
+    /**
+     * Stops listening, removes the socket and wipes the vault. Connections still being served are
+     * cut off.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        try {
+            if (server != null) server.close();
+            Files.deleteIfExists(socket);
+        } catch (IOException e) {
+            System.err.println("Warning: Could not remove the agent socket: " + e.getMessage());
+        }
+        if (idleTimer != null) idleTimer.shutdownNow();
+        if (connections != null) {
+            connections.shutdownNow();
+            try {
+                connections.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (view != null) {
+            view.close();
+        } else {
+            storage.close();
+        }
+        terminated.countDown();
+    }
+}
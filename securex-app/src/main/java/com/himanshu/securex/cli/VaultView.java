@@ -0,0 +1,141 @@
+package com.himanshu.securex.cli;
+
+import com.himanshu.securex.model.PasswordEntry;
+import com.himanshu.securex.services.StorageService;
+import com.himanshu.securex.services.VaultIndex;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only view of an unlocked vault, answering the command line's lookups. Used directly for a
+ * one-off command, and kept open by the {@link VaultAgent} to serve many.
+ *
+ * The entries and their index are loaded once and never modified afterwards, so any number of
+ * threads can read them. {@link #refreshIfChanged()} swaps in a freshly loaded copy when the app or
+ * another command has written the vault since.
+ */
+final class VaultView {
+
+    /**
+     * Thrown when a name or id does not identify exactly one entry.
+     */
+    static final class LookupException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        LookupException(String message) {
+            super(message);
+        }
+    }
+
+    private record State(long stamp, List<PasswordEntry> entries, Map<String, PasswordEntry> byId, VaultIndex index) {
+    }
+
+    private final StorageService storage;
+    private volatile State state;
+
+    private VaultView(StorageService storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Loads the vault behind {@code storage}.
+     */
+    static VaultView open(StorageService storage) throws Exception {
+        VaultView view = new VaultView(storage);
+        view.state = view.load();
+        return view;
+    }
+
+    private State load() throws Exception {
+        // Taken first: a write racing with the load then only causes one more reload
+        long stamp = storage.getChangeStamp();
+        List<PasswordEntry> entries = storage.load();
+        Map<String, PasswordEntry> byId = new HashMap<>();
+        for (PasswordEntry entry : entries) {
+            byId.put(entry.getId(), entry);
+            // Cached on the entry, so concurrent sorts only compare
+            entry.getNameKey();
+        }
+        entries.sort(Comparator.comparing(PasswordEntry::getNameKey));
+        VaultIndex index = new VaultIndex();
+        index.rebuild(entries);
+        return new State(stamp, List.copyOf(entries), byId, index);
+    }
+
+    /**
+     * Reloads the vault if it was written since it was last loaded.
+     */
+    void refreshIfChanged() throws Exception {
+        if (storage.getChangeStamp() == state.stamp()) return;
+        synchronized (this) {
+            if (storage.getChangeStamp() != state.stamp()) {
+                // Readers may still hold the old entries, so their sealed passwords are left to the
+                // garbage collector rather than wiped
+                state = load();
+            }
+        }
+    }
+
+    /**
+     * @return All entries, sorted by name.
+     */
+    List<PasswordEntry> list() {
+        return state.entries();
+    }
+
+    /**
+     * @return The entries whose name, username or URL contains the query, sorted by name.
+     */
+    List<PasswordEntry> search(String query) {
+        List<PasswordEntry> matches = state.index().search(query);
+        matches.sort(Comparator.comparing(PasswordEntry::getNameKey));
+        return matches;
+    }
+
+    /**
+     * Finds an entry by id, or by its name if exactly one entry has that name (ignoring case).
+     */
+    PasswordEntry find(String nameOrId) throws LookupException {
+        State current = state;
+        PasswordEntry match = current.byId().get(nameOrId);
+        if (match != null) return match;
+
+        List<PasswordEntry> byName = new ArrayList<>();
+        for (PasswordEntry entry : current.entries()) {
+            if (entry.getAccount() != null && entry.getAccount().equalsIgnoreCase(nameOrId)) {
+                byName.add(entry);
+            }
+        }
+        if (byName.isEmpty()) {
+            throw new LookupException("No entry named '" + nameOrId + "'.");
+        }
+        if (byName.size() > 1) {
+            StringBuilder sb = new StringBuilder(byName.size() + " entries are named '" + nameOrId + "'; use an id:");
+            for (PasswordEntry entry : byName) {
+                String username = entry.getUsername() != null ? entry.getUsername() : "";
+                sb.append("\n  ").append(entry.getId()).append("  ").append(username);
+            }
+            throw new LookupException(sb.toString());
+        }
+        return byName.get(0);
+    }
+
+    StorageService storage() {
+        return storage;
+    }
+
+    /**
+     * Stops the storage service and wipes the entries' passwords.
+     */
+    void close() {
+        storage.close();
+        for (PasswordEntry entry : state.entries()) {
+            entry.clearPassword();
+        }
+        state.index().clear();
+    }
+}
@@ -0,0 +1,1133 @@
+package com.himanshu.securex.controller;
+
+import com.himanshu.securex.model.PasswordEntry;
+import com.himanshu.securex.services.*;
+import com.himanshu.securex.util.PasswordGenerator;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.control.Button;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class DashboardController {
+
+    private static final DateTimeFormatter BACKUP_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final BorderPane view;
+    private final Stage stage;
+    private final StorageService storageService;
+    private final VaultWriter vaultWriter;
+    private final AutoLockService autoLockService;
+    private final SettingsService settingsService; // NEW
+
+    private static final KeyCombination QUICK_SWITCH_KEYS =
+            new KeyCodeCombination(KeyCode.K, KeyCombination.SHORTCUT_DOWN);
+
+    private enum SortMode {
+        NAME("Name", Comparator.comparing(PasswordEntry::getNameKey)),
+        // Entries without a URL go last
+        DOMAIN("Domain", Comparator.comparing((PasswordEntry e) -> e.getDomain().isEmpty())
+                .thenComparing(PasswordEntry::getDomain)
+                .thenComparing(PasswordEntry::getNameKey)),
+        MODIFIED("Recently Modified", Comparator.comparingLong(PasswordEntry::getModifiedAt).reversed()
+                .thenComparing(PasswordEntry::getNameKey));
+
+        final String label;
+        final Comparator<PasswordEntry> comparator;
+
+        SortMode(String label, Comparator<PasswordEntry> comparator) {
+            this.label = label;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final VaultIndex vaultIndex;
+    private QuickSwitcherController quickSwitcher;
+
+    private ObservableList<PasswordEntry> passwordEntries;
+    private FilteredList<PasswordEntry> filteredEntries;
+    private SortedList<PasswordEntry> sortedEntries;
+    private SortMode sortMode;
+    private PasswordEntry currentlySelectedEntry = null;
+
+    private TextField searchField;
+    private ListView<PasswordEntry> entryListView;
+    private TextField accountField;
+    private TextField usernameField;
+    private PasswordField passwordField;
+    private TextField plainPasswordField;
+    private TextField urlField;
+    private StackPane passwordContainer;
+    private Label feedbackLabel;
+
+    private BorderPane detailsPane;
+    private Label emptyStateLabel;
+
+    /**
+     * Shows a vault that was already decrypted and indexed in the background (see
+     * {@link UnlockedVault#open}), so nothing slow happens on the UI thread.
+     */
+    public DashboardController(Stage stage, UnlockedVault vault) {
+        this(stage, vault.storage(), vault.index());
+        passwordEntries.setAll(vault.entries());
+        applySearch();
+    }
+
+    private DashboardController(Stage stage, StorageService storageService, VaultIndex vaultIndex) {
+        this.stage = stage;
+        this.vaultIndex = vaultIndex;
+
+        // Initialize Settings Service
+        this.settingsService = new SettingsService();
+
+        this.storageService = storageService;
+        this.vaultWriter = createVaultWriter();
+
+        // Initialize AutoLock with User Preference
+        int savedTimeout = settingsService.getAutoLockTimeout();
+        this.autoLockService = new AutoLockService(savedTimeout, () -> logout(false));
+        this.autoLockService.start();
+
+        this.view = new BorderPane();
+
+        this.view.setStyle("-fx-focus-color: transparent; -fx-faint-focus-color: transparent;");
+
+        this.view.setPadding(new Insets(10));
+
+        this.view.setOnMouseMoved(e -> autoLockService.reset());
+        this.view.setOnKeyPressed(e -> autoLockService.reset());
+        this.view.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+            if (QUICK_SWITCH_KEYS.match(e)) {
+                e.consume();
+                autoLockService.reset();
+                openQuickSwitcher();
+            }
+        });
+
+        setupUI();
+    }
+
+    // For testing using JUnit
+    DashboardController(Stage stage, StorageService storageService) {
+        this.stage = stage;
+        this.vaultIndex = new VaultIndex();
+        this.storageService = storageService;
+        this.settingsService = new SettingsService();
+        this.vaultWriter = createVaultWriter();
+        this.autoLockService = new AutoLockService(5, () -> logout(false));
+        this.view = new BorderPane();
+        setupUI();
+    }
+
+    private VaultWriter createVaultWriter() {
+        return new VaultWriter(storageService, settingsService.getSaveDebounceMillis(),
+                () -> showFeedback("Changes saved."),
+                e -> {
+                    e.printStackTrace();
+                    showAlert(Alert.AlertType.ERROR, "Failed to save vault. Your changes are kept and will be saved again shortly.");
+                });
+    }
+
+    // NEW: Method to update timeout at runtime
+    public void updateAutoLockTimeout(int minutes) {
+        autoLockService.updateTimeout(minutes);
+        autoLockService.reset(); // Apply immediately
+    }
+
+    private void setupUI() {
+        view.setTop(createTopBar());
+        view.setCenter(createMainContentArea());
+    }
+
+    private HBox createTopBar() {
+        HBox topBar = new HBox(10);
+        topBar.setPadding(new Insets(0, 0, 10, 0));
+        Label title = new Label("SecureX - Password Manager");
+        title.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        String blueGlowStyle = "-fx-focus-color: #0096C9; -fx-faint-focus-color: #0096C945; -fx-font-weight: bold;";
+
+        Button settingsBtn = new Button("Settings");
+        settingsBtn.setStyle(blueGlowStyle);
+        settingsBtn.setOnAction(e -> openSettings());
+
+        Button importBtn = new Button("Import CSV");
+        importBtn.setStyle(blueGlowStyle);
+        importBtn.setOnAction(e -> handleImportCsv());
+
+        Button exportBtn = new Button("Export");
+        exportBtn.setStyle(blueGlowStyle);
+        exportBtn.setOnAction(e -> handleExport());
+
+        Button restoreBtn = new Button("Restore from Backup");
+        restoreBtn.setStyle(blueGlowStyle);
+        restoreBtn.setOnAction(e -> handleRestoreBackup());
+
+        Button logoutBtn = new Button("Logout");
+        logoutBtn.setStyle(blueGlowStyle);
+        logoutBtn.setOnAction(e -> performLogout());
+
+        topBar.getChildren().addAll(title, spacer, settingsBtn, importBtn, exportBtn, restoreBtn, logoutBtn);
+        return topBar;
+    }
+
+    private void openSettings() {
+        SettingsController settings = new SettingsController(stage, this, settingsService);
+        settings.show();
+    }
+
+
+    private void handleImportCsv() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Passwords from CSV");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showOpenDialog(stage);
+        if (file == null) return;
+
+        if (!flushPendingWrites()) return;
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Task<CsvImporter.Result> task = new Task<>() {
+            @Override
+            protected CsvImporter.Result call() throws Exception {
+                updateMessage("Reading " + file.getName() + "...");
+                return new CsvImporter(storageService).importFile(file.toPath(), new CsvImporter.ProgressListener() {
+                    @Override
+                    public void onProgress(long bytesRead, long totalBytes) {
+                        updateProgress(bytesRead, totalBytes);
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return cancelled.get();
+                    }
+                });
+            }
+        };
+
+        Stage progressStage = createProgressStage("Importing", task, () -> cancelled.set(true));
+        task.setOnSucceeded(e -> {
+            progressStage.close();
+            CsvImporter.Result result = task.getValue();
+            for (PasswordEntry entry : result.imported()) {
+                vaultIndex.update(entry);
+            }
+            passwordEntries.addAll(result.imported());
+            applySearch();
+            showAlert(Alert.AlertType.INFORMATION, "Imported " + result.imported().size() + " of " + result.rows() + " entries."
+                    + (result.duplicates() > 0 ? "\n" + result.duplicates() + " were already in your vault." : "")
+                    + (result.invalid() > 0 ? "\n" + result.invalid() + " had no password or name and were skipped." : ""));
+        });
+        task.setOnFailed(e -> {
+            progressStage.close();
+            if (task.getException() instanceof CancellationException) {
+                showAlert(Alert.AlertType.INFORMATION, "Import cancelled. Your vault was not changed.");
+                return;
+            }
+            task.getException().printStackTrace();
+            showAlert(Alert.AlertType.ERROR, "Import failed: " + task.getException().getMessage());
+        });
+
+        Thread worker = new Thread(task, "securex-csv-import");
+        worker.setDaemon(true);
+        worker.start();
+        progressStage.show();
+    }
+
+    private void handleExport() {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Export Vault");
+        dialog.initOwner(stage);
+
+        ChoiceBox<VaultExporter.Format> formatChoice = new ChoiceBox<>(
+                FXCollections.observableArrayList(VaultExporter.Format.values()));
+        formatChoice.setValue(VaultExporter.Format.ENCRYPTED_BUNDLE);
+
+        Map<VaultExporter.Field, CheckBox> fieldChecks = new EnumMap<>(VaultExporter.Field.class);
+        HBox fieldsBox = new HBox(10);
+        for (VaultExporter.Field field : VaultExporter.Field.values()) {
+            CheckBox check = new CheckBox(field.getColumnName());
+            check.setSelected(field != VaultExporter.Field.MODIFIED);
+            fieldChecks.put(field, check);
+            fieldsBox.getChildren().add(check);
+        }
+
+        CheckBox onlyShown = new CheckBox("Only the " + sortedEntries.size() + " entries currently shown");
+        onlyShown.setDisable(sortedEntries.size() == passwordEntries.size());
+
+        PasswordField bundlePassword = new PasswordField();
+        bundlePassword.setPromptText("Bundle password");
+        PasswordField bundleConfirm = new PasswordField();
+        bundleConfirm.setPromptText("Confirm bundle password");
+        Label plaintextWarning = new Label("Warning: CSV and JSON exports store passwords unencrypted.");
+        plaintextWarning.setStyle("-fx-text-fill: #b00020;");
+
+        VBox bundleBox = new VBox(6, bundlePassword, bundleConfirm);
+        Runnable updateFormat = () -> {
+            boolean bundle = formatChoice.getValue() == VaultExporter.Format.ENCRYPTED_BUNDLE;
+            bundleBox.setVisible(bundle);
+            bundleBox.setManaged(bundle);
+            boolean warn = !bundle && fieldChecks.get(VaultExporter.Field.PASSWORD).isSelected();
+            plaintextWarning.setVisible(warn);
+            plaintextWarning.setManaged(warn);
+        };
+        formatChoice.valueProperty().addListener((obs, o, n) -> updateFormat.run());
+        fieldChecks.get(VaultExporter.Field.PASSWORD).selectedProperty().addListener((obs, o, n) -> updateFormat.run());
+        updateFormat.run();
+
+        VBox content = new VBox(10, new Label("Format:"), formatChoice, new Label("Fields:"), fieldsBox,
+                onlyShown, bundleBox, plaintextWarning);
+        content.setPadding(new Insets(10));
+        dialog.getDialogPane().setContent(content);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        Optional<ButtonType> choice = dialog.showAndWait();
+        char[] password = bundlePassword.getText().toCharArray();
+        char[] confirm = bundleConfirm.getText().toCharArray();
+        bundlePassword.clear();
+        bundleConfirm.clear();
+        try {
+            if (choice.isEmpty() || choice.get() != ButtonType.OK) return;
+
+            VaultExporter.Format format = formatChoice.getValue();
+            Set<VaultExporter.Field> fields = EnumSet.noneOf(VaultExporter.Field.class);
+            fieldChecks.forEach((field, check) -> {
+                if (check.isSelected()) fields.add(field);
+            });
+            if (fields.isEmpty()) {
+                showAlert(Alert.AlertType.ERROR, "Select at least one field to export.");
+                return;
+            }
+            if (format == VaultExporter.Format.ENCRYPTED_BUNDLE) {
+                if (password.length == 0 || !Arrays.equals(password, confirm)) {
+                    showAlert(Alert.AlertType.ERROR, "Enter the same bundle password twice.");
+                    return;
+                }
+            }
+
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Export Vault");
+            chooser.setInitialFileName("securex-export." + format.getExtension());
+            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(format.toString(), "*." + format.getExtension()));
+            File file = chooser.showSaveDialog(stage);
+            if (file == null) return;
+
+            // A copy of the list, so edits made while exporting do not disturb the export
+            List<PasswordEntry> entries = new ArrayList<>(onlyShown.isSelected() ? sortedEntries : passwordEntries);
+            char[] exportPassword = format == VaultExporter.Format.ENCRYPTED_BUNDLE
+                    ? Arrays.copyOf(password, password.length) : null;
+            startExport(entries, file, format, fields, exportPassword);
+        } finally {
+            Arrays.fill(password, '\0');
+            Arrays.fill(confirm, '\0');
+        }
+    }
+
+    private void startExport(List<PasswordEntry> entries, File file, VaultExporter.Format format,
+                             Set<VaultExporter.Field> fields, char[] bundlePassword) {
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                updateMessage("Exporting " + entries.size() + " entries...");
+                new VaultExporter().export(entries, file.toPath(), format, fields, bundlePassword,
+                        new VaultExporter.ProgressListener() {
+                            @Override
+                            public void onProgress(int written, int total) {
+                                updateProgress(written, total);
+                            }
+
+                            @Override
+                            public boolean isCancelled() {
+                                return cancelled.get();
+                            }
+                        });
+                return null;
+            }
+        };
+
+        Stage progressStage = createProgressStage("Exporting", task, () -> cancelled.set(true));
+        task.setOnSucceeded(e -> {
+            progressStage.close();
+            showFeedback("Exported " + entries.size() + " entries to " + file.getName() + ".");
+        });
+        task.setOnFailed(e -> {
+            progressStage.close();
+            if (bundlePassword != null) Arrays.fill(bundlePassword, '\0');
+            if (task.getException() instanceof CancellationException) {
+                showAlert(Alert.AlertType.INFORMATION, "Export cancelled.");
+                return;
+            }
+            task.getException().printStackTrace();
+            showAlert(Alert.AlertType.ERROR, "Export failed: " + task.getException().getMessage());
+        });
+
+        Thread worker = new Thread(task, "securex-export");
+        worker.setDaemon(true);
+        worker.start();
+        progressStage.show();
+    }
+
+    /**
+     * A small modal window showing a task's message and progress, with a Cancel button.
+     * The button is disabled if {@code onCancel} is null.
+     */
+    private Stage createProgressStage(String title, Task<?> task, Runnable onCancel) {
+        Label message = new Label();
+        message.textProperty().bind(task.messageProperty());
+        ProgressBar progress = new ProgressBar();
+        progress.setMaxWidth(Double.MAX_VALUE);
+        progress.progressProperty().bind(task.progressProperty());
+        Button cancelBtn = new Button("Cancel");
+        cancelBtn.setDisable(onCancel == null);
+        cancelBtn.setOnAction(e -> {
+            cancelBtn.setDisable(true);
+            onCancel.run();
+        });
+        HBox buttons = new HBox(cancelBtn);
+        buttons.setAlignment(Pos.CENTER_RIGHT);
+
+        VBox root = new VBox(10, message, progress, buttons);
+        root.setPadding(new Insets(15));
+        Stage progressStage = new Stage();
+        progressStage.setTitle(title);
+        progressStage.initOwner(stage);
+        progressStage.initModality(Modality.WINDOW_MODAL);
+        progressStage.setResizable(false);
+        // Closing the window means the same as pressing Cancel
+        progressStage.setOnCloseRequest(e -> {
+            e.consume();
+            cancelBtn.fire();
+        });
+        progressStage.setScene(new Scene(root, 360, 120));
+        return progressStage;
+    }
+
+    private void handleRestoreBackup() {
+        try {
+            List<Path> backupFiles = storageService.getBackupFiles();
+            if (backupFiles.isEmpty()) {
+                showAlert(Alert.AlertType.INFORMATION, "No backups found.");
+                return;
+            }
+
+            // Create a custom Dialog to allow rich tooltips (popups)
+            Dialog<Path> dialog = new Dialog<>();
+            dialog.setTitle("Restore Vault");
+            dialog.setHeaderText("Choose a backup to restore.");
+            dialog.setContentText("Hover over a file to see details.");
+
+            // Use the current window as the owner
+            dialog.initOwner(stage);
+
+            // Create a ListView for the backups
+            ListView<Path> list = new ListView<>();
+            list.setItems(FXCollections.observableArrayList(backupFiles));
+            list.setPrefHeight(200);
+
+            // Custom Cell Factory to add Tooltips (Popups)
+            list.setCellFactory(param -> new ListCell<>() {
+                @Override
+                protected void updateItem(Path item, boolean empty) {
+                    super.updateItem(item, empty);
+                    if (empty || item == null) {
+                        setText(null);
+                        setTooltip(null);
+                    } else {
+                        // Display the filename
+                        setText(item.getFileName().toString());
+
+                        // Fetch count and creation time from the file header, without decrypting
+                        int count = storageService.getEntryCountFast(item);
+                        String msg = (count >= 0)
+                                ? "This backup file has " + count + " passwords."
+                                : "Could not read password count.";
+                        VaultMetadata metadata = storageService.readMetadata(item);
+                        if (metadata != null && metadata.createdAt() != null) {
+                            msg += "\nCreated " + BACKUP_TIME_FORMATTER.format(metadata.createdAt());
+                        }
+
+                        // Create the "little popup"
+                        Tooltip tooltip = new Tooltip(msg);
+                        tooltip.setStyle("-fx-font-size: 14px;");
+                        tooltip.setShowDelay(Duration.millis(300)); // Show quickly
+                        setTooltip(tooltip);
+                    }
+                }
+            });
+
+            dialog.getDialogPane().setContent(list);
+            dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+            // Convert the result: Return selected path if OK is clicked
+            dialog.setResultConverter(btn -> {
+                if (btn == ButtonType.OK) {
+                    return list.getSelectionModel().getSelectedItem();
+                }
+                return null;
+            });
+
+            Optional<Path> result = dialog.showAndWait();
+            result.ifPresent(this::startRestore);
+
+        } catch (IOException e) {
+            e.printStackTrace();
+            showAlert(Alert.AlertType.ERROR, "Could not read backup files.");
+        }
+    }
+
+    private void startRestore(Path backupFile) {
+        if (!flushPendingWrites()) return;
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                updateMessage("Restoring " + backupFile.getFileName() + "...");
+                storageService.restoreFromBackup(backupFile);
+                return null;
+            }
+        };
+
+        // A restore cannot be interrupted once started
+        Stage progressStage = createProgressStage("Restoring", task, null);
+        task.setOnSucceeded(e -> {
+            progressStage.close();
+            showAlert(Alert.AlertType.INFORMATION, "Vault restored successfully! Reloading data.");
+            loadEntries();
+        });
+        task.setOnFailed(e -> {
+            progressStage.close();
+            task.getException().printStackTrace();
+            showAlert(Alert.AlertType.ERROR, "Failed to restore backup.");
+        });
+
+        Thread worker = new Thread(task, "securex-restore");
+        worker.setDaemon(true);
+        worker.start();
+        progressStage.show();
+    }
+
+    private SplitPane createMainContentArea() {
+        VBox leftPane = new VBox(10);
+        passwordEntries = FXCollections.observableArrayList();
+        filteredEntries = new FilteredList<>(passwordEntries);
+        sortedEntries = new SortedList<>(filteredEntries);
+        entryListView = new ListView<>(sortedEntries);
+        entryListView.setCellFactory(lv -> new EntryCell());
+        VBox.setVgrow(entryListView, Priority.ALWAYS);
+
+        ChoiceBox<SortMode> sortChoiceBox = new ChoiceBox<>(FXCollections.observableArrayList(SortMode.values()));
+        sortChoiceBox.setMaxWidth(Double.MAX_VALUE);
+        sortChoiceBox.setValue(loadSortMode());
+        applySortMode(sortChoiceBox.getValue());
+        sortChoiceBox.valueProperty().addListener((obs, oldMode, newMode) -> {
+            applySortMode(newMode);
+            settingsService.setEntrySortMode(newMode.name());
+        });
+        HBox sortBox = new HBox(5, new Label("Sort by:"), sortChoiceBox);
+        sortBox.setAlignment(Pos.CENTER_LEFT);
+        HBox.setHgrow(sortChoiceBox, Priority.ALWAYS);
+
+        searchField = new TextField();
+        searchField.setPromptText("Search account, username or URL");
+        searchField.textProperty().addListener((obs, oldText, newText) -> applySearch());
+
+        Button newButton = new Button("New Entry");
+        String blueGlowStyle = "-fx-focus-color: #0096C9; -fx-faint-focus-color: #0096C945; -fx-font-weight: bold;";
+        newButton.setStyle(blueGlowStyle);
+
+        newButton.setMaxWidth(Double.MAX_VALUE);
+        newButton.setOnAction(e -> handleNewEntryClick());
+        leftPane.getChildren().addAll(searchField, sortBox, entryListView, newButton);
+
+        detailsPane = createDetailsPane();
+        emptyStateLabel = new Label("Select an entry to view details, or click 'New Entry' to begin.");
+        emptyStateLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: grey;");
+
+        ScrollPane detailsScroll = new ScrollPane(detailsPane);
+        detailsScroll.setFitToWidth(true);
+        detailsScroll.setFitToHeight(true);
+        detailsScroll.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
+        detailsScroll.setVbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
+
+        StackPane rightStack = new StackPane(emptyStateLabel, detailsScroll);
+        detailsPane.setVisible(false);
+        emptyStateLabel.setVisible(true);
+
+        entryListView.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
+            if (oldSelection != null) {
+                clearDetailsFields();
+            }
+
+            currentlySelectedEntry = newSelection;
+            if (newSelection != null) {
+                populateDetails(newSelection);
+                detailsPane.setVisible(true);
+                emptyStateLabel.setVisible(false);
+            } else {
+                clearDetailsFields();
+                detailsPane.setVisible(false);
+                emptyStateLabel.setVisible(true);
+            }
+        });
+
+        SplitPane splitPane = new SplitPane(leftPane, rightStack);
+        splitPane.setDividerPositions(0.30);
+        return splitPane;
+    }
+
+    private BorderPane createDetailsPane() {
+        BorderPane root = new BorderPane();
+        root.setPadding(new Insets(10));
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(15);
+
+        accountField = new TextField();
+        usernameField = new TextField();
+        urlField = new  TextField();
+        urlField.setPromptText("https://example.com");
+
+        String defaultFocus = "-fx-focus-color: #0096C9; -fx-faint-focus-color: #0096C945;";
+        accountField.setStyle(defaultFocus);
+        usernameField.setStyle(defaultFocus);
+        urlField.setStyle(defaultFocus);
+
+        createPasswordToggleField();
+
+        Button copyUserButton = new Button("Copy");
+        copyUserButton.setOnAction(e -> copyToClipboard(usernameField.getText(), "Username"));
+        HBox userBox = new HBox(5, usernameField, copyUserButton);
+        HBox.setHgrow(usernameField, Priority.ALWAYS);
+
+        Button copyPassButton = new Button("Copy");
+        copyPassButton.setOnAction(e -> copyToClipboard(passwordField.getText(), "Password"));
+        Button generateButton = new Button("Generate");
+        generateButton.setOnAction(e -> handleGeneratePassword());
+        HBox passwordBox = new HBox(5, passwordContainer, copyPassButton, generateButton);
+        HBox.setHgrow(passwordContainer, Priority.ALWAYS);
+
+        Button launchButton = new Button("↗");
+        launchButton.setTooltip(new Tooltip("Open Website"));
+        launchButton.setOnAction(e -> handleLaunchUrl());
+        HBox urlBox =  new HBox(5, urlField, launchButton);
+        HBox.setHgrow(urlField, Priority.ALWAYS);
+
+        grid.add(new Label("Account:"), 0, 0);
+        grid.add(accountField, 1, 0);
+        grid.add(new Label("URL:"), 0, 1); // New Row
+        grid.add(urlBox, 1, 1);
+        grid.add(new Label("Username:"), 0, 2);
+        grid.add(userBox, 1, 2);
+        grid.add(new Label("Password:"), 0, 3);
+        grid.add(passwordBox, 1, 3);
+
+        feedbackLabel = new Label();
+        feedbackLabel.setStyle("-fx-text-fill: green;");
+        grid.add(feedbackLabel, 1, 3);
+
+        ColumnConstraints c0 = new ColumnConstraints();
+        c0.setPercentWidth(25);
+        ColumnConstraints c1 = new ColumnConstraints();
+        c1.setPercentWidth(75);
+        grid.getColumnConstraints().addAll(c0, c1);
+
+        Button saveButton = new Button("Save");
+        saveButton.setOnAction(e -> saveCurrentEntry());
+        Button deleteButton = new Button("Delete");
+        deleteButton.setOnAction(e -> deleteSelectedEntry());
+
+        saveButton.disableProperty().bind(accountField.textProperty().isEmpty());
+        deleteButton.disableProperty().bind(entryListView.getSelectionModel().selectedItemProperty().isNull());
+
+        HBox buttonBar = new HBox(10, deleteButton, saveButton);
+        buttonBar.setAlignment(Pos.CENTER_RIGHT);
+        buttonBar.setPadding(new Insets(10, 0, 0, 0));
+
+        root.setCenter(grid);
+        root.setBottom(buttonBar);
+        return root;
+    }
+
+    private void createPasswordToggleField() {
+        passwordField = new PasswordField();
+        plainPasswordField = new TextField();
+
+        String defaultFocus = "-fx-focus-color: #0096C9; -fx-faint-focus-color: #0096C945;";
+        passwordField.setStyle(defaultFocus);
+        plainPasswordField.setStyle(defaultFocus);
+
+        plainPasswordField.managedProperty().bind(passwordField.managedProperty());
+        plainPasswordField.visibleProperty().bind(passwordField.visibleProperty().not());
+        passwordField.textProperty().bindBidirectional(plainPasswordField.textProperty());
+
+        ToggleButton toggleButton = new ToggleButton("👁");
+        toggleButton.setStyle("-fx-font-size: 14px;");
+        passwordField.visibleProperty().bind(toggleButton.selectedProperty().not());
+
+        HBox passwordToggleBox = new HBox(5);
+        StackPane fieldContainer = new StackPane(passwordField, plainPasswordField);
+        HBox.setHgrow(fieldContainer, Priority.ALWAYS);
+        passwordToggleBox.getChildren().addAll(fieldContainer, toggleButton);
+
+        passwordContainer = new StackPane(passwordToggleBox);
+    }
+
+    private void handleGeneratePassword() {
+        char[] generatedPassword = PasswordGenerator.generatePassword(16);
+        if (!passwordField.getText().isEmpty()) {
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+            alert.setTitle("Overwrite Password");
+            alert.setHeaderText("Are you sure you want to overwrite the current password?");
+            alert.setContentText("This action cannot be undone.");
+
+            Optional<ButtonType> result = alert.showAndWait();
+            if (result.isPresent() && result.get() == ButtonType.OK) {
+                passwordField.setText(new String(generatedPassword));
+            }
+        } else {
+            passwordField.setText(new String(generatedPassword));
+        }
+        Arrays.fill(generatedPassword, '\0');
+    }
+
+    private void openQuickSwitcher() {
+        quickSwitcher = new QuickSwitcherController(stage, vaultIndex.snapshot(),
+                this::useQuickSwitchEntry, autoLockService::reset);
+        quickSwitcher.show();
+    }
+
+    /**
+     * Selects the entry chosen in the quick switcher and copies its password.
+     */
+    private void useQuickSwitchEntry(PasswordEntry entry) {
+        quickSwitcher = null;
+        // It may have been deleted or the vault reloaded while the switcher was open
+        if (!passwordEntries.contains(entry)) return;
+        if (!filteredEntries.contains(entry)) {
+            searchField.clear();
+        }
+        entryListView.getSelectionModel().select(entry);
+        entryListView.scrollTo(entry);
+
+        char[] password = entry.getPassword();
+        try {
+            copyToClipboard(new String(password), "Password");
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    private void copyToClipboard(String text, String fieldName) {
+        if (text == null || text.isEmpty()) return;
+        ClipboardService.copyToClipboard(text);
+        showFeedback(fieldName + " copied to clipboard.");
+    }
+
+    private void showFeedback(String message) {
+        feedbackLabel.setText(message);
+        PauseTransition pause = new PauseTransition(Duration.seconds(3));
+        pause.setOnFinished(e -> feedbackLabel.setText(""));
+        pause.play();
+    }
+
+    private void handleNewEntryClick() {
+        entryListView.getSelectionModel().clearSelection();
+        currentlySelectedEntry = null;
+        clearDetailsFields();
+        detailsPane.setVisible(true);
+        emptyStateLabel.setVisible(false);
+        accountField.requestFocus();
+    }
+
+    private void handleLaunchUrl() {
+        String url = urlField.getText();
+        if (url == null || url.isEmpty()) return;
+
+        if (!url.startsWith("http://") && !url.startsWith("https://")) {
+            url = "https://" + url;
+        }
+
+        try {
+            if (Desktop.isDesktopSupported() && Desktop.getDesktop().isSupported(Desktop.Action.BROWSE)) {
+                Desktop.getDesktop().browse(new URI(url));
+            } else {
+                showAlert(Alert.AlertType.ERROR, "Opening browser is not supported on this platform.");
+            }
+        } catch (Exception e) {
+            showAlert(Alert.AlertType.ERROR, "Could not open link: " + e.getMessage());
+        }
+    }
+
+    private void populateDetails(PasswordEntry entry) {
+        accountField.setText(entry.getAccount());
+        usernameField.setText(entry.getUsername());
+        char[] password = entry.getPassword();
+        passwordField.setText(new String(password));
+        Arrays.fill(password, '\0');
+        urlField.setText(entry.getUrl() != null ? entry.getUrl() : "");
+    }
+
+    private void clearDetailsFields() {
+        accountField.clear();
+        usernameField.clear();
+        passwordField.clear();
+        urlField.clear();
+    }
+
+    private void saveCurrentEntry() {
+        String account = accountField.getText();
+        String username = usernameField.getText();
+        char[] password = passwordField.getText().toCharArray();
+        String url = urlField.getText();
+
+        if (account.trim().isEmpty() || username.trim().isEmpty() || password.length == 0) {
+            showAlert(Alert.AlertType.ERROR, "Account, Username, and Password are required.");
+            Arrays.fill(password, '\0');
+            return;
+        }
+
+        PasswordEntry savedEntry;
+        if (currentlySelectedEntry != null) {
+            long version = currentlySelectedEntry.getVersion();
+            currentlySelectedEntry.setAccount(account);
+            currentlySelectedEntry.setUsername(username);
+            currentlySelectedEntry.setPassword(password);
+            // The URL field shows a missing URL as empty
+            if (!url.isEmpty() || currentlySelectedEntry.getUrl() != null) {
+                currentlySelectedEntry.setUrl(url);
+            }
+            Arrays.fill(password, '\0');
+            if (currentlySelectedEntry.getVersion() == version) {
+                // Nothing was edited, so there is nothing to write
+                showFeedback("No changes to save.");
+                return;
+            }
+            savedEntry = currentlySelectedEntry;
+            vaultIndex.update(savedEntry);
+            // Replacing the element in place lets the sorted view move it to its new position
+            passwordEntries.set(passwordEntries.indexOf(savedEntry), savedEntry);
+            entryListView.getSelectionModel().select(savedEntry);
+        } else {
+            PasswordEntry newEntry = new PasswordEntry(account, username, password, url);
+            vaultIndex.update(newEntry);
+            passwordEntries.add(newEntry);
+            applySearch();
+            // A new entry that does not match the current search would be hidden, so show everything
+            if (!filteredEntries.contains(newEntry)) {
+                searchField.clear();
+            }
+            entryListView.getSelectionModel().select(newEntry);
+            savedEntry = newEntry;
+        }
+
+        Arrays.fill(password, '\0');
+        saveEntry(savedEntry);
+    }
+
+    private void deleteSelectedEntry() {
+        if (currentlySelectedEntry == null) {
+            return;
+        }
+
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Delete Entry");
+        alert.setHeaderText("Are you sure you want to delete the entry for '" + currentlySelectedEntry.getAccount() + "'?");
+        Optional<ButtonType> result = alert.showAndWait();
+
+        if (result.isPresent() && result.get() == ButtonType.OK) {
+            PasswordEntry removed = currentlySelectedEntry;
+            vaultIndex.remove(removed);
+            passwordEntries.remove(removed);
+            deleteEntry(removed);
+        }
+    }
+
+    private void loadEntries() {
+        try {
+            List<PasswordEntry> entries = storageService.load();
+            mergeEntries(entries);
+            vaultIndex.rebuild(passwordEntries);
+            applySearch();
+        } catch (Exception e) {
+            e.printStackTrace();
+            showAlert(Alert.AlertType.ERROR, "Failed to load vault. It may be corrupt or the password may be incorrect.");
+        }
+    }
+
+    /**
+     * Brings {@link #passwordEntries} in line with {@code loaded} instead of replacing everything:
+     * unchanged entries keep their instance, edited ones are replaced in place, and additions and
+     * removals are applied in one batch each, so the sorted view only re-sorts what changed. When
+     * most of the vault changed, a single setAll is cheaper. The selection survives either way
+     * when the selected entry still exists.
+     */
+    private void mergeEntries(List<PasswordEntry> loaded) {
+        PasswordEntry selected = entryListView.getSelectionModel().getSelectedItem();
+        String selectedId = selected != null ? selected.getId() : null;
+
+        Map<String, Integer> currentIndex = new HashMap<>();
+        for (int i = 0; i < passwordEntries.size(); i++) {
+            currentIndex.put(passwordEntries.get(i).getId(), i);
+        }
+
+        List<PasswordEntry> merged = new ArrayList<>(loaded.size());
+        Map<Integer, PasswordEntry> replaced = new HashMap<>();
+        List<PasswordEntry> added = new ArrayList<>();
+        Set<PasswordEntry> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(passwordEntries);
+        PasswordEntry reselect = null;
+        for (PasswordEntry entry : loaded) {
+            Integer index = currentIndex.get(entry.getId());
+            PasswordEntry kept = entry;
+            if (index == null) {
+                added.add(entry);
+            } else {
+                PasswordEntry current = passwordEntries.get(index);
+                removed.remove(current);
+                if (current.hasSameContent(entry)) {
+                    kept = current;
+                    entry.clearPassword();
+                } else {
+                    replaced.put(index, entry);
+                    current.clearPassword();
+                }
+            }
+            merged.add(kept);
+            if (kept.getId().equals(selectedId)) {
+                reselect = kept;
+            }
+        }
+
+        int changes = replaced.size() + added.size() + removed.size();
+        if (changes > passwordEntries.size() / 4) {
+            passwordEntries.setAll(merged);
+        } else {
+            replaced.forEach(passwordEntries::set);
+            if (!removed.isEmpty()) {
+                passwordEntries.removeAll(removed);
+            }
+            if (!added.isEmpty()) {
+                passwordEntries.addAll(added);
+            }
+        }
+        removed.forEach(PasswordEntry::clearPassword);
+
+        if (reselect == null) {
+            entryListView.getSelectionModel().clearSelection();
+        } else if (reselect != entryListView.getSelectionModel().getSelectedItem()) {
+            entryListView.getSelectionModel().select(reselect);
+        }
+    }
+
+    private SortMode loadSortMode() {
+        try {
+            return SortMode.valueOf(settingsService.getEntrySortMode());
+        } catch (IllegalArgumentException e) {
+            return SortMode.NAME;
+        }
+    }
+
+    private void applySortMode(SortMode mode) {
+        sortMode = mode;
+        sortedEntries.setComparator(mode.comparator);
+        entryListView.refresh();
+    }
+
+    /**
+     * Shows the account name, and while sorting by domain, a header above the first entry of each
+     * domain. The text comes from fields cached on the entry, so scrolling does no string work.
+     */
+    private class EntryCell extends ListCell<PasswordEntry> {
+        private final Label header = new Label();
+        private final Label name = new Label();
+        private final VBox box = new VBox(2, header, name);
+
+        EntryCell() {
+            header.setStyle("-fx-font-weight: bold; -fx-text-fill: grey;");
+            header.setManaged(false);
+            header.setVisible(false);
+        }
+
+        @Override
+        protected void updateItem(PasswordEntry item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(null);
+            if (empty || item == null) {
+                setGraphic(null);
+                return;
+            }
+            name.setText(item.getAccount());
+            boolean showHeader = false;
+            if (sortMode == SortMode.DOMAIN) {
+                int index = getIndex();
+                String domain = item.getDomain();
+                showHeader = index == 0 || !domain.equals(getListView().getItems().get(index - 1).getDomain());
+                header.setText(domain.isEmpty() ? "No URL" : domain);
+            }
+            header.setManaged(showHeader);
+            header.setVisible(showHeader);
+            setGraphic(box);
+        }
+    }
+
+    /**
+     * Filters the entry list down to the index's matches for the search box. An edited entry keeps
+     * its place in the list until the query changes, so saving never makes the selection vanish.
+     */
+    private void applySearch() {
+        String query = searchField.getText();
+        if (query == null || query.isBlank()) {
+            filteredEntries.setPredicate(null);
+            return;
+        }
+        Set<PasswordEntry> matches = Collections.newSetFromMap(new IdentityHashMap<>());
+        matches.addAll(vaultIndex.search(query));
+        filteredEntries.setPredicate(matches::contains);
+    }
+
+    private void saveEntry(PasswordEntry entry) {
+        vaultWriter.put(entry);
+    }
+
+    private void deleteEntry(PasswordEntry entry) {
+        vaultWriter.delete(entry);
+        entry.clearPassword();
+    }
+
+    /**
+     * Blocks until all edits waiting in the save queue have been written.
+     * @return Whether they were written. If not, the user has been told why.
+     */
+    public boolean flushPendingWrites() {
+        try {
+            vaultWriter.flush();
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            showAlert(Alert.AlertType.ERROR, "Your latest changes could not be saved: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void performLogout() {
+        logout(true);
+    }
+
+    /**
+     * @param askBeforeDiscarding Whether to let the user stay logged in if some edits could not be
+     *                            saved. Auto-lock does not wait for an answer; it tells the user
+     *                            afterwards.
+     */
+    private void logout(boolean askBeforeDiscarding) {
+        String unsaved = null;
+        try {
+            vaultWriter.flush();
+        } catch (Exception e) {
+            e.printStackTrace();
+            unsaved = vaultWriter.pendingEdits() + " unsaved change(s) could not be written to the vault: " + e.getMessage();
+            if (askBeforeDiscarding) {
+                Alert alert = new Alert(Alert.AlertType.WARNING);
+                alert.setTitle("Unsaved Changes");
+                alert.setHeaderText(unsaved);
+                alert.setContentText("Logging out now discards them. Do you want to log out anyway?");
+                ButtonType logout = new ButtonType("Log Out Anyway", ButtonBar.ButtonData.OK_DONE);
+                ButtonType stay = new ButtonType("Stay Logged In", ButtonBar.ButtonData.CANCEL_CLOSE);
+                alert.getButtonTypes().setAll(stay, logout);
+                alert.initOwner(stage);
+                Optional<ButtonType> choice = alert.showAndWait();
+                if (choice.isEmpty() || choice.get() != logout) {
+                    autoLockService.reset();
+                    return;
+                }
+            }
+        }
+
+        if (quickSwitcher != null) {
+            quickSwitcher.close();
+            quickSwitcher = null;
+        }
+        autoLockService.stop();
+        vaultWriter.close();
+        for (PasswordEntry entry : passwordEntries) {
+            entry.clearPassword();
+        }
+        passwordEntries.clear();
+        vaultIndex.clear();
+
+        LoginController loginController = new LoginController(stage);
+        Scene loginScene = new Scene(loginController.getView(), 300, 200);
+        stage.setTitle("SecureX - Login");
+        stage.setResizable(false);
+        stage.setScene(loginScene);
+        stage.sizeToScene();
+        stage.centerOnScreen();
+
+        if (unsaved != null && !askBeforeDiscarding) {
+            showAlert(Alert.AlertType.WARNING, "The vault was locked and changes that could not be saved were discarded.\n" + unsaved);
+        }
+    }
+
+    private void showAlert(Alert.AlertType type, String msg) {
+        Platform.runLater(() -> {
+            Alert alert = new Alert(type, msg, ButtonType.OK);
+            alert.setHeaderText(null);
+            alert.initOwner(stage);
+            alert.show();
+        });
+    }
+
+    public void onPasswordChanged(boolean success) {
+        if (success) {
+            showAlert(Alert.AlertType.INFORMATION, "Master password changed successfully. You will be logged out.");
+            PauseTransition pause = new PauseTransition(Duration.seconds(0.1));
+            pause.setOnFinished(e -> performLogout());
+            pause.play();
+        } else {
+            showAlert(Alert.AlertType.ERROR, "Password could not be changed successfully.");
+        }
+    }
+
+    public BorderPane getView() {
+        return view;
+    }
+}
\ No newline at end of file
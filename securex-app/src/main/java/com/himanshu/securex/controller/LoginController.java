@@ -0,0 +1,213 @@
+package com.himanshu.securex.controller;
+
+import com.himanshu.securex.auth.AuthManager;
+import com.himanshu.securex.services.CryptoService;
+import com.himanshu.securex.services.UnlockedVault;
+import javafx.concurrent.Task;
+import javafx.concurrent.WorkerStateEvent;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The login and sign-up view.
+ *
+ * Unlocking runs as a background {@link Task}: deriving the key, decrypting the vault and
+ * indexing it all happen off the UI thread while a spinner is shown, and the dashboard only
+ * replaces this view once its data is ready. The crypto code is warmed up as soon as the view
+ * is created, while the user is still typing.
+ */
+public class LoginController {
+    private final VBox view;
+    private final AuthManager authManager;
+    private final Stage stage;
+
+    private final PasswordField passwordField;
+    private final Button actionBtn;
+    private final HBox progressBox;
+    private final Label progressLabel;
+    private final Button cancelBtn;
+
+    public LoginController(Stage stage) {
+        this.stage = stage;
+        this.authManager = new AuthManager();
+        this.view = new VBox(10);
+        this.view.setPadding(new Insets(15));
+
+        UnlockedVault.warmUp();
+
+        Label label = new Label(authManager.masterPasswordExists() ? "Login" : "Create Master Password");
+        passwordField = new PasswordField();
+        passwordField.setPromptText("Enter master password");
+
+        actionBtn = new Button(authManager.masterPasswordExists() ? "Login" : "Sign Up");
+        actionBtn.setDefaultButton(true);
+
+        ProgressIndicator spinner = new ProgressIndicator();
+        spinner.setPrefSize(20, 20);
+        progressLabel = new Label();
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        cancelBtn = new Button("Cancel");
+        cancelBtn.setCancelButton(true);
+        progressBox = new HBox(8, spinner, progressLabel, spacer, cancelBtn);
+        progressBox.setAlignment(Pos.CENTER_LEFT);
+        showProgress(false);
+
+        actionBtn.setOnAction(e -> {
+            char[] pwd = passwordField.getText().toCharArray();
+            passwordField.clear();
+
+            if (pwd.length == 0) {
+                showAlert(Alert.AlertType.ERROR, "Password cannot be empty");
+                return;
+            }
+
+            // Both tasks wipe the array they are given
+            if (authManager.masterPasswordExists()) {
+                startUnlock(pwd);
+            } else {
+                startSignUp(pwd);
+            }
+        });
+
+        view.getChildren().addAll(label, passwordField, actionBtn, progressBox);
+    }
+
+    public VBox getView() {
+        return view;
+    }
+
+    private void startUnlock(char[] pwd) {
+        // Holds the vault from the moment it is open. A cancel can land while call() is returning
+        // it, after which the task's value is dropped, so the task and the handlers each take it
+        // from here and whichever comes last releases it
+        AtomicReference<UnlockedVault> opened = new AtomicReference<>();
+        Task<UnlockedVault> task = new Task<>() {
+            @Override
+            protected UnlockedVault call() throws Exception {
+                updateMessage("Verifying password...");
+                // unlock() zeroes the array it is given
+                CryptoService cryptoService = authManager.unlock(pwd);
+                if (cryptoService == null || isCancelled()) return null;
+
+                updateMessage("Decrypting vault...");
+                UnlockedVault vault = UnlockedVault.open(cryptoService);
+                opened.set(vault);
+                if (isCancelled()) {
+                    discard(opened);
+                    return null;
+                }
+                return vault;
+            }
+        };
+        task.setOnSucceeded(e -> {
+            showProgress(false);
+            if (task.isCancelled()) {
+                discard(opened);
+                return;
+            }
+            UnlockedVault vault = opened.getAndSet(null);
+            if (vault != null) {
+                switchToDashboard(vault);
+            } else {
+                showAlert(Alert.AlertType.ERROR, "Incorrect password");
+                passwordField.requestFocus();
+            }
+        });
+        task.setOnFailed(e -> {
+            showProgress(false);
+            discard(opened);
+            task.getException().printStackTrace();
+            showAlert(Alert.AlertType.ERROR, "Failed to load vault. It may be corrupt or the password may be incorrect.");
+        });
+        task.addEventHandler(WorkerStateEvent.WORKER_STATE_CANCELLED, e -> discard(opened));
+        run(task, "securex-unlock", true);
+    }
+
+    private static void discard(AtomicReference<UnlockedVault> opened) {
+        UnlockedVault vault = opened.getAndSet(null);
+        if (vault != null) {
+            vault.discard();
+        }
+    }
+
+    private void startSignUp(char[] pwd) {
+        Task<Boolean> task = new Task<>() {
+            @Override
+            protected Boolean call() {
+                updateMessage("Creating vault...");
+                return authManager.saveMasterPassword(pwd);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            showProgress(false);
+            if (task.getValue()) {
+                showAlert(Alert.AlertType.INFORMATION, "Master password created! Please restart the app to log in.");
+                stage.close();
+            } else {
+                showAlert(Alert.AlertType.ERROR, "Could not save master password. Check file permissions.");
+            }
+        });
+        task.setOnFailed(e -> {
+            showProgress(false);
+            showAlert(Alert.AlertType.ERROR, "Could not save master password. Check file permissions.");
+        });
+        // Creating the vault is not undone half-way, so it cannot be cancelled
+        run(task, "securex-sign-up", false);
+    }
+
+    /**
+     * Starts the task with the spinner shown. Cancelling returns to the form straight away; the
+     * key derivation itself cannot be interrupted, so its result is discarded when it finishes.
+     */
+    private void run(Task<?> task, String threadName, boolean cancellable) {
+        progressLabel.textProperty().bind(task.messageProperty());
+        cancelBtn.setVisible(cancellable);
+        cancelBtn.setOnAction(e -> task.cancel());
+        task.setOnCancelled(e -> {
+            showProgress(false);
+            passwordField.requestFocus();
+        });
+        showProgress(true);
+
+        Thread worker = new Thread(task, threadName);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void showProgress(boolean running) {
+        progressBox.setVisible(running);
+        progressBox.setManaged(running);
+        passwordField.setDisable(running);
+        actionBtn.setDisable(running);
+        if (!running) {
+            progressLabel.textProperty().unbind();
+            progressLabel.setText("");
+        }
+    }
+
+    private void switchToDashboard(UnlockedVault vault) {
+        DashboardController dashboardController = new DashboardController(stage, vault);
+        Scene dashboardScene = new Scene(dashboardController.getView(), 800, 600);
+
+        stage.setTitle("SecureX - Dashboard");
+        stage.setResizable(true);
+        stage.setScene(dashboardScene);
+        stage.centerOnScreen();
+    }
+
+    private void showAlert(Alert.AlertType type, String msg) {
+        Alert alert = new Alert(type, msg, ButtonType.OK);
+        alert.setHeaderText(null);
+        alert.showAndWait();
+    }
+}
@@ -0,0 +1,207 @@
+package com.himanshu.securex.controller;
+
+import com.himanshu.securex.model.PasswordEntry;
+import com.himanshu.securex.services.VaultIndex;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keyboard-driven quick switcher: type a few characters of an account, username or URL, pick a
+ * result with the arrow keys and press Enter to use it.
+ *
+ * Matching runs on a background thread against a snapshot of the vault index taken when the
+ * switcher opens. Each keystroke supersedes the previous query: the running search notices that
+ * its generation is stale and stops, and a result that arrives late is dropped. The UI thread only
+ * ever swaps in the finished list, so typing stays responsive on large vaults.
+ */
+public class QuickSwitcherController {
+
+    private static final int MAX_RESULTS = 50;
+
+    private final Stage dialogStage;
+    private final VaultIndex.Snapshot snapshot;
+    private final Consumer<PasswordEntry> onChosen;
+    private final ExecutorService searchExecutor;
+    private final AtomicLong generation = new AtomicLong();
+    private final ObservableList<PasswordEntry> results = FXCollections.observableArrayList();
+
+    private TextField queryField;
+    private ListView<PasswordEntry> resultList;
+    private Label hint;
+    private Future<?> pendingSearch;
+    // The last result shown; narrowed by the next search when the query only grew
+    private VaultIndex.FuzzyResult lastResult;
+
+    /**
+     * @param onChosen Called on the UI thread with the entry the user picked, after the switcher closed.
+     * @param onActivity Called on every key press, so the switcher counts as activity for auto-lock.
+     */
+    public QuickSwitcherController(Stage owner, VaultIndex.Snapshot snapshot,
+                                   Consumer<PasswordEntry> onChosen, Runnable onActivity) {
+        this.snapshot = snapshot;
+        this.onChosen = onChosen;
+        this.searchExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "securex-quick-switcher");
+            t.setDaemon(true);
+            return t;
+        });
+        this.dialogStage = buildDialogStage(owner);
+        this.dialogStage.addEventFilter(KeyEvent.KEY_PRESSED, e -> onActivity.run());
+    }
+
+    public void show() {
+        dialogStage.show();
+        dialogStage.toFront();
+        queryField.requestFocus();
+    }
+
+    public void close() {
+        dialogStage.close();
+    }
+
+    private Stage buildDialogStage(Stage owner) {
+        Stage stage = new Stage();
+        stage.setTitle("Quick Switch");
+        stage.initOwner(owner);
+        stage.initModality(Modality.WINDOW_MODAL);
+        stage.initStyle(StageStyle.UTILITY);
+        stage.setResizable(false);
+
+        queryField = new TextField();
+        queryField.setPromptText("Type to search, Enter copies the password");
+        queryField.textProperty().addListener((obs, oldText, newText) -> search(newText));
+
+        resultList = new ListView<>(results);
+        resultList.setPrefHeight(320);
+        resultList.setCellFactory(lv -> new ListCell<>() {
+            @Override
+            protected void updateItem(PasswordEntry item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    String url = item.getUrl();
+                    setText(item.getAccount() + "  -  " + item.getUsername()
+                            + (url == null || url.isEmpty() ? "" : "  (" + url + ")"));
+                }
+            }
+        });
+        resultList.setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) {
+                choose(resultList.getSelectionModel().getSelectedItem());
+            }
+        });
+
+        hint = new Label();
+        hint.setStyle("-fx-text-fill: grey;");
+
+        VBox root = new VBox(10, queryField, resultList, hint);
+        root.setPadding(new Insets(15));
+
+        Scene scene = new Scene(root, 520, 420);
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+            switch (e.getCode()) {
+                case ESCAPE -> {
+                    stage.close();
+                    e.consume();
+                }
+                case ENTER -> {
+                    choose(resultList.getSelectionModel().getSelectedItem());
+                    e.consume();
+                }
+                case DOWN -> {
+                    moveSelection(1);
+                    e.consume();
+                }
+                case UP -> {
+                    moveSelection(-1);
+                    e.consume();
+                }
+                default -> { }
+            }
+        });
+        stage.setScene(scene);
+        stage.setOnHidden(e -> {
+            generation.incrementAndGet();
+            searchExecutor.shutdownNow();
+        });
+
+        search("");
+        return stage;
+    }
+
+    private void search(String query) {
+        long current = generation.incrementAndGet();
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+        }
+        if (query.isBlank()) {
+            pendingSearch = null;
+            lastResult = null;
+            showResults(Arrays.asList(snapshot.firstEntries(MAX_RESULTS)), -1);
+            return;
+        }
+        VaultIndex.FuzzyResult previous = lastResult;
+        pendingSearch = searchExecutor.submit(() -> {
+            try {
+                VaultIndex.FuzzyResult found = snapshot.fuzzySearch(query, MAX_RESULTS, previous,
+                        () -> generation.get() != current);
+                Platform.runLater(() -> {
+                    // A newer keystroke may have started another search in the meantime
+                    if (generation.get() == current) {
+                        lastResult = found;
+                        showResults(found.getTop(), found.getMatchCount());
+                    }
+                });
+            } catch (CancellationException ignored) {
+                // Superseded by a newer query
+            }
+        });
+    }
+
+    private void showResults(List<PasswordEntry> found, int matchCount) {
+        results.setAll(found);
+        hint.setText((matchCount < 0 ? snapshot.size() + " entries" : matchCount + " matches")
+                + ". Up/Down to select, Esc to close.");
+        if (!found.isEmpty()) {
+            resultList.getSelectionModel().selectFirst();
+            resultList.scrollTo(0);
+        }
+    }
+
+    private void moveSelection(int delta) {
+        if (results.isEmpty()) return;
+        int index = resultList.getSelectionModel().getSelectedIndex() + delta;
+        index = Math.max(0, Math.min(results.size() - 1, index));
+        resultList.getSelectionModel().select(index);
+        resultList.scrollTo(index);
+    }
+
+    private void choose(PasswordEntry entry) {
+        if (entry == null) return;
+        dialogStage.close();
+        onChosen.accept(entry);
+    }
+}
@@ -0,0 +1,443 @@
+package com.himanshu.securex.controller;
+
+import com.himanshu.securex.auth.AuthManager;
+import com.himanshu.securex.diagnostics.Metrics;
+import com.himanshu.securex.services.BackupReencryptionJob;
+import com.himanshu.securex.services.SettingsService;
+import com.himanshu.securex.util.HashUtil;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SettingsController {
+    private final Stage owner;
+    private final DashboardController dashboardController;
+    private final SettingsService settingsService; // NEW
+
+    private Stage dialogStage;
+    private Stage diagnosticsStage;
+    private ChoiceBox<String> timeoutChoiceBox;
+    private ChoiceBox<String> kdfTargetChoiceBox;
+
+    // Map display strings to minute values
+    private static final Map<String, Integer> TIMEOUT_OPTIONS = new LinkedHashMap<>();
+    static {
+        TIMEOUT_OPTIONS.put("1 Minute", 1);
+        TIMEOUT_OPTIONS.put("5 Minutes", 5);
+        TIMEOUT_OPTIONS.put("15 Minutes", 15);
+        TIMEOUT_OPTIONS.put("30 Minutes", 30);
+        TIMEOUT_OPTIONS.put("1 Hour", 60);
+        TIMEOUT_OPTIONS.put("Never", -1);
+    }
+
+    // Opens the diagnostics pane, which is not otherwise shown in the settings
+    private static final KeyCombination DIAGNOSTICS_KEYS =
+            new KeyCodeCombination(KeyCode.D, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN);
+
+    // Target time for deriving the master key, in milliseconds
+    private static final Map<String, Integer> KDF_TARGET_OPTIONS = new LinkedHashMap<>();
+    static {
+        KDF_TARGET_OPTIONS.put("100 ms", 100);
+        KDF_TARGET_OPTIONS.put("300 ms", 300);
+        KDF_TARGET_OPTIONS.put("500 ms", 500);
+        KDF_TARGET_OPTIONS.put("1 Second", 1000);
+    }
+
+    public SettingsController(Stage owner, DashboardController dashboardController, SettingsService settingsService) {
+        this.owner = owner;
+        this.dashboardController = dashboardController;
+        this.settingsService = settingsService;
+    }
+
+    public void show() {
+        if (dialogStage == null) {
+            dialogStage = buildDialogStage();
+        }
+        dialogStage.show();
+        dialogStage.toFront();
+    }
+
+    private Stage buildDialogStage() {
+        Stage stage = new Stage();
+        stage.setTitle("Settings");
+        stage.initOwner(owner);
+        stage.initModality(Modality.WINDOW_MODAL);
+        stage.setResizable(false);
+
+        BorderPane root = new BorderPane();
+        root.setPadding(new Insets(15));
+
+        VBox contentBox = new VBox(20);
+
+        //Section 1: Security Preferences
+        TitledPane prefPane = new TitledPane();
+        prefPane.setText("Security Preferences");
+        prefPane.setCollapsible(false);
+
+        GridPane prefGrid = new GridPane();
+        prefGrid.setHgap(10);
+        prefGrid.setVgap(10);
+        prefGrid.setPadding(new Insets(10));
+
+        Label timeoutLabel = new Label("Auto-Lock Timeout:");
+        timeoutChoiceBox = new ChoiceBox<>();
+        timeoutChoiceBox.getItems().addAll(TIMEOUT_OPTIONS.keySet());
+
+        // Set current selection
+        int currentTimeout = settingsService.getAutoLockTimeout();
+        String currentKey = TIMEOUT_OPTIONS.entrySet().stream()
+                .filter(e -> e.getValue() == currentTimeout)
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse("5 Minutes");
+        timeoutChoiceBox.setValue(currentKey);
+
+        prefGrid.add(timeoutLabel, 0, 0);
+        prefGrid.add(timeoutChoiceBox, 1, 0);
+
+        // Key derivation cost; applied the next time the master password is set
+        kdfTargetChoiceBox = new ChoiceBox<>();
+        kdfTargetChoiceBox.getItems().addAll(KDF_TARGET_OPTIONS.keySet());
+        int currentTarget = settingsService.getKdfTargetMillis();
+        kdfTargetChoiceBox.setValue(KDF_TARGET_OPTIONS.entrySet().stream()
+                .filter(e -> e.getValue() == currentTarget)
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse("300 ms"));
+
+        AuthManager.KdfStatus kdfStatus = new AuthManager(currentTarget).getKdfStatus();
+        Label kdfStatusLabel = new Label(String.format("%,d iterations", kdfStatus.iterations())
+                + (kdfStatus.lastDerivationMillis() >= 0 ? ", " + kdfStatus.lastDerivationMillis() + " ms at last unlock" : ""));
+        Label kdfMeasureLabel = new Label();
+        kdfMeasureLabel.setWrapText(true);
+        Button btnMeasure = new Button("Measure");
+        btnMeasure.setOnAction(e -> {
+            int target = KDF_TARGET_OPTIONS.get(kdfTargetChoiceBox.getValue());
+            Task<HashUtil.Calibration> measure = new Task<>() {
+                @Override
+                protected HashUtil.Calibration call() {
+                    return HashUtil.calibrate(target);
+                }
+            };
+            measure.setOnSucceeded(ev -> {
+                HashUtil.Calibration c = measure.getValue();
+                kdfMeasureLabel.setText(String.format("This machine: %,d iterations in ~%d ms. Applied at the next password change.",
+                        c.iterations(), c.derivationMillis()));
+                btnMeasure.setDisable(false);
+            });
+            measure.setOnFailed(ev -> btnMeasure.setDisable(false));
+            btnMeasure.setDisable(true);
+            kdfMeasureLabel.setText("Measuring...");
+            Thread worker = new Thread(measure, "securex-kdf-calibration");
+            worker.setDaemon(true);
+            worker.start();
+        });
+
+        prefGrid.add(new Label("Unlock Time Target:"), 0, 1);
+        prefGrid.add(new HBox(10, kdfTargetChoiceBox, btnMeasure), 1, 1);
+        prefGrid.add(new Label("Key Derivation:"), 0, 2);
+        prefGrid.add(kdfStatusLabel, 1, 2);
+        prefGrid.add(kdfMeasureLabel, 0, 3, 2, 1);
+        prefPane.setContent(prefGrid);
+
+        //Section 2: Change Master Password
+        TitledPane passwordPane = new TitledPane();
+        passwordPane.setText("Change Master Password");
+        passwordPane.setCollapsible(false);
+
+        GridPane passGrid = new GridPane();
+        passGrid.setHgap(10);
+        passGrid.setVgap(12);
+        passGrid.setPadding(new Insets(10));
+
+        PasswordField currentPassword = new PasswordField();
+        currentPassword.setPromptText("Current master password");
+        PasswordField newPassword = new PasswordField();
+        newPassword.setPromptText("New master password");
+        PasswordField confirmPassword = new PasswordField();
+        confirmPassword.setPromptText("Confirm new master password");
+
+        passGrid.add(new Label("Current Password:"), 0, 0);
+        passGrid.add(currentPassword, 1, 0);
+        passGrid.add(new Label("New Password:"), 0, 1);
+        passGrid.add(newPassword, 1, 1);
+        passGrid.add(new Label("Confirm:"), 0, 2);
+        passGrid.add(confirmPassword, 1, 2);
+
+        ColumnConstraints c0 = new ColumnConstraints();
+        c0.setPercentWidth(35);
+        ColumnConstraints c1 = new ColumnConstraints();
+        c1.setPercentWidth(65);
+        passGrid.getColumnConstraints().addAll(c0, c1);
+
+        // Shown while the password is changed; a legacy vault re-encrypts its backups here
+        ProgressBar changeProgress = new ProgressBar(0);
+        changeProgress.setMaxWidth(Double.MAX_VALUE);
+        Label changeStatus = new Label();
+        VBox progressBox = new VBox(6, changeProgress, changeStatus);
+        progressBox.setVisible(false);
+        progressBox.setManaged(false);
+        passGrid.add(progressBox, 0, 3, 2, 1);
+        passwordPane.setContent(passGrid);
+
+        contentBox.getChildren().addAll(prefPane, passwordPane);
+
+        //Buttons
+        Button btnSave = new Button("Save Changes");
+        Button btnCancel = new Button("Cancel");
+        HBox buttons = new HBox(10, btnCancel, btnSave);
+        buttons.setAlignment(Pos.CENTER_RIGHT);
+        buttons.setPadding(new Insets(10, 0, 0, 0));
+
+        // Set while a password change runs; Cancel then asks the change to stop instead of closing
+        AtomicReference<AtomicBoolean> cancelRequest = new AtomicReference<>();
+        btnCancel.setOnAction(e -> {
+            AtomicBoolean running = cancelRequest.get();
+            if (running != null) {
+                running.set(true);
+                btnCancel.setDisable(true);
+                return;
+            }
+            stage.close();
+        });
+
+        btnSave.setOnAction(e -> {
+            // 1. Save Preferences
+            String selectedKey = timeoutChoiceBox.getValue();
+            int newTimeout = TIMEOUT_OPTIONS.get(selectedKey);
+            settingsService.setAutoLockTimeout(newTimeout);
+            settingsService.setKdfTargetMillis(KDF_TARGET_OPTIONS.get(kdfTargetChoiceBox.getValue()));
+            dashboardController.updateAutoLockTimeout(newTimeout);
+
+            // 2. Handle Password Change (if fields are filled)
+            char[] oldPwd = currentPassword.getText().toCharArray();
+            char[] newPwd = newPassword.getText().toCharArray();
+            char[] confirmPwd = confirmPassword.getText().toCharArray();
+
+            boolean passwordChangeRequested = oldPwd.length > 0 || newPwd.length > 0;
+
+            if (passwordChangeRequested) {
+                if (newPwd.length == 0) {
+                    showAlert(Alert.AlertType.ERROR, "New password cannot be empty.");
+                    return;
+                }
+                if (!Arrays.equals(newPwd, confirmPwd)) {
+                    showAlert(Alert.AlertType.ERROR, "New password and confirmation do not match.");
+                    return;
+                }
+
+                // Logic from previous implementation
+                Alert confirm = new Alert(Alert.AlertType.WARNING);
+                confirm.setTitle("Confirm Password Change");
+                confirm.setHeaderText("Change Master Password");
+                confirm.setContentText("Your vault and backups will be unlocked with the new password from now on, and you will be logged out.\nDo you want to continue?");
+                ButtonType proceed = new ButtonType("Continue", ButtonBar.ButtonData.OK_DONE);
+                ButtonType cancel = new ButtonType("Cancel", ButtonBar.ButtonData.CANCEL_CLOSE);
+                confirm.getButtonTypes().setAll(cancel, proceed);
+                confirm.initOwner(owner);
+
+                var result = confirm.showAndWait();
+                if (result.isEmpty() || result.get() != proceed) {
+                    return;
+                }
+
+                if (!dashboardController.flushPendingWrites()) return;
+                AtomicBoolean cancelled = new AtomicBoolean(false);
+
+                // AuthManager wipes both passwords once it is done with them
+                Task<AuthManager.PasswordChangeResult> task = new Task<>() {
+                    @Override
+                    protected AuthManager.PasswordChangeResult call() {
+                        updateMessage("Changing master password...");
+                        AuthManager authManager = new AuthManager(settingsService.getKdfTargetMillis());
+                        return authManager.changeMasterPassword(oldPwd, newPwd,
+                                new BackupReencryptionJob.ProgressListener() {
+                                    @Override
+                                    public void onProgress(int completed, int total) {
+                                        updateProgress(completed, total);
+                                        updateMessage("Re-encrypted " + completed + " of " + total + " backups...");
+                                    }
+
+                                    @Override
+                                    public boolean isCancelled() {
+                                        return cancelled.get();
+                                    }
+                                });
+                    }
+                };
+                cancelRequest.set(cancelled);
+
+                changeProgress.progressProperty().bind(task.progressProperty());
+                changeStatus.textProperty().bind(task.messageProperty());
+                progressBox.setVisible(true);
+                progressBox.setManaged(true);
+                btnSave.setDisable(true);
+
+                task.setOnSucceeded(ev -> {
+                    cancelRequest.set(null);
+                    resetProgress(progressBox, changeProgress, changeStatus, btnSave, btnCancel);
+                    AuthManager.PasswordChangeResult changeResult = task.getValue();
+                    if (changeResult.backups() != null && changeResult.backups().cancelled()) {
+                        showAlert(Alert.AlertType.INFORMATION, "Password change cancelled. Your master password was not changed.");
+                        return;
+                    }
+                    if (changeResult.success() && changeResult.backups() != null
+                            && !changeResult.backups().skipped().isEmpty()) {
+                        showAlert(Alert.AlertType.WARNING, describeSkipped(changeResult.backups().skipped()));
+                    }
+                    dashboardController.onPasswordChanged(changeResult.success());
+                    if (changeResult.success()) stage.close();
+                });
+                task.setOnFailed(ev -> {
+                    cancelRequest.set(null);
+                    resetProgress(progressBox, changeProgress, changeStatus, btnSave, btnCancel);
+                    dashboardController.onPasswordChanged(false);
+                });
+
+                Thread worker = new Thread(task, "securex-password-change");
+                worker.setDaemon(true);
+                worker.start();
+
+                Arrays.fill(confirmPwd, '\0');
+                currentPassword.clear();
+                newPassword.clear();
+                confirmPassword.clear();
+                return;
+
+            } else {
+                // Only settings changed
+                stage.close();
+                showAlert(Alert.AlertType.INFORMATION, "Settings saved.");
+            }
+
+            // Clean up
+            Arrays.fill(oldPwd, '\0');
+            Arrays.fill(newPwd, '\0');
+            Arrays.fill(confirmPwd, '\0');
+            currentPassword.clear();
+            newPassword.clear();
+            confirmPassword.clear();
+        });
+
+        root.setCenter(contentBox);
+        root.setBottom(buttons);
+
+        Scene scene = new Scene(root, 450, 560);
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+            if (DIAGNOSTICS_KEYS.match(e)) {
+                e.consume();
+                showDiagnostics();
+            }
+        });
+        stage.setScene(scene);
+        return stage;
+    }
+
+    /**
+     * Shows the timings and counts recorded for vault operations (see {@link Metrics}), and lets
+     * them be copied or saved as JSON to attach to a bug report. Opened with Ctrl+Shift+D.
+     */
+    private void showDiagnostics() {
+        if (diagnosticsStage == null) {
+            diagnosticsStage = buildDiagnosticsStage();
+        }
+        diagnosticsStage.show();
+        diagnosticsStage.toFront();
+    }
+
+    private Stage buildDiagnosticsStage() {
+        Stage stage = new Stage();
+        stage.setTitle("Diagnostics");
+        stage.initOwner(dialogStage);
+
+        TextArea report = new TextArea(Metrics.toText());
+        report.setEditable(false);
+        report.setStyle("-fx-font-family: monospace;");
+        VBox.setVgrow(report, Priority.ALWAYS);
+
+        Label hint = new Label("Timings since the app started. Start the app with -XX:StartFlightRecording for a full recording.");
+        hint.setWrapText(true);
+        hint.setStyle("-fx-text-fill: grey;");
+
+        Button btnRefresh = new Button("Refresh");
+        btnRefresh.setOnAction(e -> report.setText(Metrics.toText()));
+        Button btnCopy = new Button("Copy JSON");
+        btnCopy.setOnAction(e -> {
+            ClipboardContent content = new ClipboardContent();
+            content.putString(Metrics.toJson());
+            Clipboard.getSystemClipboard().setContent(content);
+        });
+        Button btnSave = new Button("Save JSON...");
+        btnSave.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Save Diagnostics");
+            chooser.setInitialFileName("securex-diagnostics.json");
+            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON files", "*.json"));
+            File file = chooser.showSaveDialog(stage);
+            if (file == null) return;
+            try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                Metrics.writeJson(writer);
+            } catch (IOException ex) {
+                showAlert(Alert.AlertType.ERROR, "Could not save diagnostics: " + ex.getMessage());
+            }
+        });
+        HBox buttons = new HBox(10, btnRefresh, btnCopy, btnSave);
+        buttons.setAlignment(Pos.CENTER_RIGHT);
+
+        VBox root = new VBox(10, report, hint, buttons);
+        root.setPadding(new Insets(15));
+        stage.setScene(new Scene(root, 640, 420));
+        return stage;
+    }
+
+    private static void resetProgress(VBox progressBox, ProgressBar progress, Label status, Button btnSave, Button btnCancel) {
+        progress.progressProperty().unbind();
+        status.textProperty().unbind();
+        progressBox.setVisible(false);
+        progressBox.setManaged(false);
+        btnSave.setDisable(false);
+        btnCancel.setDisable(false);
+    }
+
+    private static String describeSkipped(Map<Path, String> skipped) {
+        StringBuilder sb = new StringBuilder(skipped.size() + " backup(s) could not be re-encrypted and still use the old password:\n");
+        skipped.forEach((file, reason) -> sb.append("\n").append(file.getFileName()).append(": ").append(reason));
+        return sb.toString();
+    }
+
+    private void showAlert(Alert.AlertType type, String msg) {
+        Platform.runLater(() -> {
+            Alert alert = new Alert(type, msg, ButtonType.OK);
+            alert.initOwner(owner);
+            alert.setHeaderText(null);
+            alert.show();
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,225 @@
+package com.himanshu.securex.diagnostics;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-process registry of timings and counts for vault operations, so slow unlocks or saves on
+ * a user's machine can be diagnosed from the diagnostics pane or its JSON dump.
+ *
+ * Metrics are created on first use by name and live for the rest of the process. Recording is
+ * lock-free and cheap enough for per-entry crypto calls. Nothing secret is ever recorded, only
+ * durations and sizes.
+ *
+ * The same operations are also emitted as JDK Flight Recorder events (see {@link VaultEvents})
+ * for when a full recording is available.
+ */
+public final class Metrics {
+
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Gauge> GAUGES = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, n -> new Timer());
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public static Gauge gauge(String name) {
+        return GAUGES.computeIfAbsent(name, n -> new Gauge());
+    }
+
+    /**
+     * A latency histogram. Durations fall into power-of-two buckets of microseconds, so
+     * percentiles are accurate to within a factor of two; the maximum is exact.
+     */
+    public static final class Timer {
+        private static final int BUCKETS = 40;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private Timer() {
+        }
+
+        /**
+         * Records the time elapsed since {@code startNanos}, a {@link System#nanoTime()} reading.
+         */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public void record(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets.incrementAndGet(bucket);
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * @return The upper bound of the bucket holding the given percentile, in milliseconds.
+         */
+        public double percentileMillis(double percentile) {
+            long total = getCount();
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= Math.max(1, rank)) {
+                    // Bucket i holds durations below 2^i microseconds
+                    return Math.min((1L << i) / 1000.0, getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+
+        public double getTotalMillis() {
+            return totalNanos.sum() / 1_000_000.0;
+        }
+
+        public double getMeanMillis() {
+            long n = getCount();
+            return n == 0 ? 0 : getTotalMillis() / n;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+    }
+
+    /**
+     * A monotonically increasing count, e.g. of bytes encrypted.
+     */
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        private Counter() {
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * The latest observed value of something, e.g. the number of backup files.
+     */
+    public static final class Gauge {
+        private volatile long value;
+
+        private Gauge() {
+        }
+
+        public void set(long value) {
+            this.value = value;
+        }
+
+        public long get() {
+            return value;
+        }
+    }
+
+    /**
+     * @return All metrics as a JSON document, sorted by name.
+     */
+    public static String toJson() {
+        StringWriter out = new StringWriter();
+        try {
+            writeJson(out);
+        } catch (IOException e) {
+            // A StringWriter does not throw
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes all metrics as JSON, along with the JVM and OS they were recorded on.
+     */
+    public static void writeJson(Writer out) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.setIndent("  ");
+        json.beginObject();
+        json.name("generatedAt").value(Instant.now().toString());
+        json.name("java").value(System.getProperty("java.version"));
+        json.name("os").value(System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        json.name("processors").value(Runtime.getRuntime().availableProcessors());
+
+        json.name("timers").beginObject();
+        for (Map.Entry<String, Timer> entry : new TreeMap<>(TIMERS).entrySet()) {
+            Timer timer = entry.getValue();
+            json.name(entry.getKey()).beginObject();
+            json.name("count").value(timer.getCount());
+            json.name("totalMs").value(round(timer.getTotalMillis()));
+            json.name("meanMs").value(round(timer.getMeanMillis()));
+            json.name("p50Ms").value(round(timer.percentileMillis(50)));
+            json.name("p90Ms").value(round(timer.percentileMillis(90)));
+            json.name("p99Ms").value(round(timer.percentileMillis(99)));
+            json.name("maxMs").value(round(timer.getMaxMillis()));
+            json.endObject();
+        }
+        json.endObject();
+
+        json.name("counters").beginObject();
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(COUNTERS).entrySet()) {
+            json.name(entry.getKey()).value(entry.getValue().get());
+        }
+        json.endObject();
+
+        json.name("gauges").beginObject();
+        for (Map.Entry<String, Gauge> entry : new TreeMap<>(GAUGES).entrySet()) {
+            json.name(entry.getKey()).value(entry.getValue().get());
+        }
+        json.endObject();
+
+        json.endObject();
+        json.flush();
+    }
+
+    /**
+     * @return A plain-text table of all metrics, for display.
+     */
+    public static String toText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-22s %7s %9s %9s %9s %9s%n", "Timer", "Count", "Mean ms", "p90 ms", "Max ms", "Total ms"));
+        new TreeMap<>(TIMERS).forEach((name, t) -> sb.append(String.format("%-22s %7d %9.2f %9.2f %9.2f %9.1f%n",
+                name, t.getCount(), t.getMeanMillis(), t.percentileMillis(90), t.getMaxMillis(), t.getTotalMillis())));
+        sb.append(String.format("%n%-22s %15s%n", "Counter", "Value"));
+        new TreeMap<>(COUNTERS).forEach((name, c) -> sb.append(String.format("%-22s %,15d%n", name, c.get())));
+        new TreeMap<>(GAUGES).forEach((name, g) -> sb.append(String.format("%-22s %,15d%n", name, g.get())));
+        return sb.toString();
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,111 @@
+package com.himanshu.securex.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder events for vault operations, recorded when the app runs with
+ * {@code -XX:StartFlightRecording} or a recording is started with {@code jcmd}.
+ *
+ * Events are only created once Flight Recorder is running: initializing the first event class
+ * sets up JFR's machinery, which would add a few hundred milliseconds to every start (and to each
+ * command-line lookup) otherwise. The {@code begin} methods therefore return null when there is no
+ * recording; callers fill in and commit the event only if they got one.
+ */
+public final class VaultEvents {
+
+    private VaultEvents() {
+    }
+
+    private static boolean recording() {
+        return FlightRecorder.isInitialized();
+    }
+
+    public static KeyDerivation beginKeyDerivation() {
+        if (!recording()) return null;
+        KeyDerivation event = new KeyDerivation();
+        event.begin();
+        return event;
+    }
+
+    public static Cipher beginCipher() {
+        if (!recording()) return null;
+        Cipher event = new Cipher();
+        event.begin();
+        return event;
+    }
+
+    public static Storage beginStorage() {
+        if (!recording()) return null;
+        Storage event = new Storage();
+        event.begin();
+        return event;
+    }
+
+    public static BackupPrune beginBackupPrune() {
+        if (!recording()) return null;
+        BackupPrune event = new BackupPrune();
+        event.begin();
+        return event;
+    }
+
+    @Name("com.himanshu.securex.KeyDerivation")
+    @Label("Key Derivation")
+    @Description("PBKDF2 run over a password")
+    @Category({"SecureX", "Crypto"})
+    public static final class KeyDerivation extends Event {
+        @Label("Iterations")
+        public int iterations;
+    }
+
+    @Name("com.himanshu.securex.Cipher")
+    @Label("Cipher Operation")
+    @Description("AES-GCM encryption or decryption of one message or vault chunk")
+    @Category({"SecureX", "Crypto"})
+    @StackTrace(false)
+    // Sealing one entry takes microseconds; only slow operations are worth a recorded event each
+    @Threshold("1 ms")
+    public static final class Cipher extends Event {
+        @Label("Operation")
+        public String operation;
+
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("com.himanshu.securex.Storage")
+    @Label("Vault Storage")
+    @Description("A vault file being saved, loaded or backed up")
+    @Category({"SecureX", "Storage"})
+    public static final class Storage extends Event {
+        @Label("Operation")
+        public String operation;
+
+        @Label("Entries")
+        public int entries;
+
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("com.himanshu.securex.BackupPrune")
+    @Label("Backup Pruning")
+    @Description("Old backups being deleted after a new one was made")
+    @Category({"SecureX", "Storage"})
+    public static final class BackupPrune extends Event {
+        @Label("Backups Kept")
+        public int kept;
+
+        @Label("Backups Deleted")
+        public int deleted;
+    }
+}
@@ -0,0 +1,324 @@
+package com.himanshu.securex.model;
+
+import com.himanshu.securex.util.DomainUtil;
+import com.himanshu.securex.util.SecretArena;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A single vault entry.
+ *
+ * The password is kept sealed (see {@link SecretSealer}) and is only decrypted when
+ * {@link #getPassword()} is called. An entry that has not been attached to a sealer yet
+ * (e.g. it was just created in the UI) holds its password in plaintext until
+ * {@link #attach(SecretSealer)} seals it. That plaintext is kept off the Java heap, in the
+ * {@link SecretArena}, and copies of the entry share it rather than duplicating it.
+ *
+ * The keys used to sort and group entries are derived on first use and cached until the field
+ * they come from is edited, so re-sorting a large vault does not redo the collation work.
+ *
+ * Every edit that changes a field bumps the entry's {@link #getVersion() version} and clears its
+ * saved mark; setting a field to the value it already has does neither. The storage layer
+ * {@link #markSaved(long) marks} entries saved once they match a vault snapshot, so it can skip
+ * the unchanged ones.
+ */
+public class PasswordEntry {
+    // Ignores case but not accents when ordering account names
+    private static final Collator NAME_COLLATOR = createNameCollator();
+
+    private String id;
+    private String account;
+    private String username;
+    private String secret;
+    // Plaintext password; only set when read from a legacy vault, until the entry is attached
+    private char[] password;
+    private String url;
+    // Epoch milliseconds of the last edit; 0 for entries written before this was recorded
+    private long modifiedAt;
+
+    private transient SecretSealer sealer;
+    // Plaintext password of an entry that is not sealed yet
+    private transient SecretArena.Secret plaintext;
+    private transient CollationKey nameKey;
+    private transient String domain;
+    // Incremented by every edit in this session
+    private transient long version;
+    // Generation of the vault snapshot this entry is stored unchanged in; 0 once edited
+    private transient long savedGeneration;
+
+    public PasswordEntry(String account, String username, char[] password, String url) {
+        this.id = UUID.randomUUID().toString();
+        this.account = account;
+        this.username = username;
+        this.plaintext = password.length > 0 ? SecretArena.getDefault().store(password) : null;
+        this.url = url;
+        this.modifiedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Creates a copy of this entry with the same id. The sealed secret and an unsealed password
+     * are both shared; the copy needs its own {@link #clearPassword()}.
+     */
+    public PasswordEntry copy() {
+        PasswordEntry copy = new PasswordEntry(account, username, new char[0], url);
+        copy.id = this.id;
+        copy.secret = this.secret;
+        copy.sealer = this.sealer;
+        copy.password = this.password != null ? Arrays.copyOf(this.password, this.password.length) : null;
+        copy.plaintext = this.plaintext != null ? this.plaintext.retain() : null;
+        copy.modifiedAt = this.modifiedAt;
+        copy.nameKey = this.nameKey;
+        copy.domain = this.domain;
+        copy.version = this.version;
+        copy.savedGeneration = this.savedGeneration;
+        return copy;
+    }
+
+    /**
+     * @return true if {@code other} has the same id and stored fields, without decrypting either password.
+     */
+    public boolean hasSameContent(PasswordEntry other) {
+        return Objects.equals(id, other.id)
+                && Objects.equals(account, other.account)
+                && Objects.equals(username, other.username)
+                && Objects.equals(url, other.url)
+                && Objects.equals(secret, other.secret)
+                && Arrays.equals(password, other.password)
+                && plaintext == other.plaintext
+                && modifiedAt == other.modifiedAt;
+    }
+
+// --- Getters and Setters ---
+
+    /**
+     * Returns the stable identifier of this entry. Entries written before ids existed
+     * are assigned one when the vault is loaded (see {@link #ensureId()}).
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Assigns a random id if this entry does not have one yet (e.g. it was deserialized
+     * from a vault created by an older version).
+     */
+    public void ensureId() {
+        if (this.id == null) {
+            this.id = UUID.randomUUID().toString();
+            this.savedGeneration = 0;
+        }
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public void setAccount(String account) {
+        if (Objects.equals(this.account, account)) return;
+        this.account = account;
+        this.nameKey = null;
+        touch();
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        if (Objects.equals(this.username, username)) return;
+        this.username = username;
+        touch();
+    }
+
+    /**
+     * Decrypts and returns the password.
+     * @return A fresh copy of the password that the caller should wipe after use. The copy is an
+     * ordinary heap array: only the entry's own unsealed plaintext is kept in the arena.
+     */
+    public char[] getPassword() {
+        if (plaintext != null) {
+            return plaintext.copy();
+        }
+        if (password != null) {
+            return Arrays.copyOf(password, password.length);
+        }
+        if (secret == null) {
+            return new char[0];
+        }
+        if (sealer == null) {
+            throw new IllegalStateException("Entry is not attached to a vault key.");
+        }
+        return sealer.open(secret, id);
+    }
+
+    /**
+     * Replaces the password, unless it is the same as the current one.
+     */
+    public void setPassword(char[] password) {
+        if (hasPassword(password)) return;
+        clearPassword();
+        this.password = null;
+        if (sealer != null) {
+            this.secret = sealer.seal(password, id);
+        } else {
+            this.secret = null;
+            // Copied into the arena, so the caller's array can be wiped
+            this.plaintext = password.length > 0 ? SecretArena.getDefault().store(password) : null;
+        }
+        touch();
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        if (Objects.equals(this.url, url)) return;
+        this.url = url;
+        this.domain = null;
+        touch();
+    }
+
+    /**
+     * @return Whether {@code candidate} is the current password, without leaking where they differ. False
+     * if the password is sealed but the entry is not attached, so it cannot be checked.
+     */
+    private boolean hasPassword(char[] candidate) {
+        if (secret != null && sealer == null && plaintext == null && password == null) return false;
+        char[] current = getPassword();
+        try {
+            if (current.length != candidate.length) return false;
+            int diff = 0;
+            for (int i = 0; i < candidate.length; i++) {
+                diff |= current[i] ^ candidate[i];
+            }
+            return diff == 0;
+        } finally {
+            Arrays.fill(current, '\0');
+        }
+    }
+
+    /**
+     * @return When the entry was last edited, in epoch milliseconds, or 0 if unknown.
+     */
+    public long getModifiedAt() {
+        return modifiedAt;
+    }
+
+    /**
+     * @return The collation key of the account name, for sorting by name.
+     */
+    public CollationKey getNameKey() {
+        if (nameKey == null) {
+            nameKey = NAME_COLLATOR.getCollationKey(account != null ? account : "");
+        }
+        return nameKey;
+    }
+
+    /**
+     * @return The registrable domain of the URL (e.g. "google.com" for "https://mail.google.com/"),
+     * or an empty string if the entry has no usable URL.
+     */
+    public String getDomain() {
+        if (domain == null) {
+            domain = DomainUtil.registrableDomain(url);
+        }
+        return domain;
+    }
+
+    /**
+     * @return A counter that every change to this entry in this session increments, e.g. to tell
+     * whether an edit dialog changed anything.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Whether the entry is stored unchanged in the vault snapshot of the given generation.
+     */
+    public boolean isSavedIn(long generation) {
+        return generation != 0 && savedGeneration == generation;
+    }
+
+    /**
+     * Records that the entry is stored unchanged in the vault snapshot of the given generation.
+     * Called by the storage layer after reading or writing the snapshot.
+     */
+    public void markSaved(long generation) {
+        this.savedGeneration = generation;
+    }
+
+    private void touch() {
+        modifiedAt = System.currentTimeMillis();
+        version++;
+        savedGeneration = 0;
+    }
+
+    private static Collator createNameCollator() {
+        Collator collator = Collator.getInstance();
+        collator.setStrength(Collator.SECONDARY);
+        return collator;
+    }
+
+    /**
+     * Binds this entry to a sealer. A plaintext password is sealed and wiped; a secret sealed
+     * by a different sealer is re-sealed with the new one.
+     */
+    public void attach(SecretSealer newSealer) {
+        ensureId();
+        if (newSealer == sealer && password == null && plaintext == null) return;
+
+        char[] plain = null;
+        try {
+            if (plaintext != null) {
+                plain = plaintext.copy();
+                plaintext.close();
+                plaintext = null;
+            } else if (password != null) {
+                plain = password;
+                password = null;
+            } else if (secret != null && sealer != null) {
+                plain = sealer.open(secret, id);
+            }
+            this.sealer = newSealer;
+            if (plain != null) {
+                this.secret = newSealer.seal(plain, id);
+                // The stored form changed, though the password did not
+                this.savedGeneration = 0;
+            }
+        } finally {
+            if (plain != null) {
+                Arrays.fill(plain, '\0');
+            }
+        }
+    }
+
+    /**
+     * Securely clears any plaintext password held by this entry from memory. An unsealed password
+     * is wiped from the arena once no copy of the entry holds it any more.
+     */
+    public void clearPassword() {
+        if (this.password != null) {
+            Arrays.fill(this.password, '\0');
+            this.password = null;
+        }
+        if (this.plaintext != null) {
+            this.plaintext.close();
+            this.plaintext = null;
+        }
+    }
+
+    /**
+     * Provides a string representation for display purposes, e.g., in a ListView.
+     * @return The account name.
+     */
+    @Override
+    public String toString() {
+        return this.account;
+    }
+}
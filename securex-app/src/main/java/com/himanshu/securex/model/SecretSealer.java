@@ -0,0 +1,24 @@
+package com.himanshu.securex.model;
+
+/**
+ * Seals and opens the secret fields of a single {@link PasswordEntry}.
+ * The entry id is bound to the ciphertext so a sealed secret cannot be moved to another entry.
+ */
+public interface SecretSealer {
+
+    /**
+     * Encrypts a secret for the entry with the given id.
+     * @param secret  The plaintext secret. It is not modified.
+     * @param entryId The id of the owning entry, used as associated data.
+     * @return An opaque, printable representation of the sealed secret.
+     */
+    String seal(char[] secret, String entryId);
+
+    /**
+     * Decrypts a secret previously produced by {@link #seal}.
+     * @param sealed  The sealed secret.
+     * @param entryId The id of the owning entry.
+     * @return A fresh plaintext copy that the caller is responsible for wiping.
+     */
+    char[] open(String sealed, String entryId);
+}
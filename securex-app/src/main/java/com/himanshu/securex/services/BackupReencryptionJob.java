@@ -0,0 +1,188 @@
+package com.himanshu.securex.services;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-encrypts all backups from an old key to a new key in parallel.
+ *
+ * The job works in two phases so that it can be cancelled cleanly:
+ * {@link #prepare} re-encrypts every backup into a staged temp file next to it, using a pool
+ * sized to the number of cores, and reports progress as files complete. Nothing visible changes
+ * until {@link #commit()} atomically moves each staged file over its backup. {@link #discard()}
+ * deletes the staged files instead.
+ */
+public class BackupReencryptionJob {
+
+    private static final String STAGED_SUFFIX = ".reencrypt.tmp";
+
+    /**
+     * Receives progress updates from {@link #prepare}, possibly from worker threads.
+     */
+    public interface ProgressListener {
+        void onProgress(int completed, int total);
+
+        /**
+         * @return true to stop the job before the remaining backups are re-encrypted.
+         */
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+
+    /**
+     * Outcome of {@link #prepare}.
+     * @param total       Number of backups found.
+     * @param reencrypted Number of backups staged successfully.
+     * @param skipped     Backups that could not be re-encrypted, with the reason.
+     * @param cancelled   Whether the job was cancelled.
+     */
+    public record Result(int total, int reencrypted, Map<Path, String> skipped, boolean cancelled) {
+    }
+
+    private final StorageService storageService;
+    private final CryptoService oldCrypto;
+    private final CryptoService newCrypto;
+    private final Map<Path, Path> staged = new LinkedHashMap<>();
+
+    public BackupReencryptionJob(StorageService storageService, CryptoService oldCrypto, CryptoService newCrypto) {
+        this.storageService = storageService;
+        this.oldCrypto = oldCrypto;
+        this.newCrypto = newCrypto;
+    }
+
+    /**
+     * Re-encrypts all backups into staged files. Blocks until done or cancelled.
+     * @param listener Progress callback, or null.
+     */
+    public Result prepare(ProgressListener listener) throws IOException {
+        List<Path> backups = new ArrayList<>();
+        for (Path backup : storageService.getBackupFiles()) {
+            if (Files.size(backup) > 0) backups.add(backup);
+        }
+        int total = backups.size();
+        Map<Path, String> skipped = new LinkedHashMap<>();
+        if (total == 0) {
+            return new Result(0, 0, skipped, false);
+        }
+
+        int threads = Math.min(total, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "securex-backup-reencrypt");
+            t.setDaemon(true);
+            return t;
+        });
+        CompletionService<Path> completion = new ExecutorCompletionService<>(pool);
+        Map<Future<Path>, Path> tasks = new LinkedHashMap<>();
+        AtomicInteger completed = new AtomicInteger();
+        boolean cancelled = false;
+
+        try {
+            for (Path backup : backups) {
+                Path target = backup.resolveSibling(backup.getFileName() + STAGED_SUFFIX);
+                tasks.put(completion.submit(() -> {
+                    storageService.reencryptBackup(backup, target, oldCrypto, newCrypto);
+                    return target;
+                }), backup);
+            }
+
+            for (int i = 0; i < total; i++) {
+                if (listener != null && listener.isCancelled()) {
+                    cancelled = true;
+                    break;
+                }
+                Future<Path> done;
+                try {
+                    done = completion.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancelled = true;
+                    break;
+                }
+                Path backup = tasks.get(done);
+                try {
+                    staged.put(backup, done.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    skipped.put(backup, cause.getMessage() != null ? cause.getMessage() : cause.toString());
+                    Files.deleteIfExists(backup.resolveSibling(backup.getFileName() + STAGED_SUFFIX));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancelled = true;
+                    break;
+                }
+                if (listener != null) {
+                    listener.onProgress(completed.incrementAndGet(), total);
+                }
+            }
+        } finally {
+            if (cancelled) {
+                pool.shutdownNow();
+            } else {
+                pool.shutdown();
+            }
+        }
+
+        if (cancelled) {
+            awaitQuietly(pool);
+            discard();
+            // Staged files of tasks that were still running are not in the map yet
+            for (Path backup : backups) {
+                Files.deleteIfExists(backup.resolveSibling(backup.getFileName() + STAGED_SUFFIX));
+            }
+        }
+        return new Result(total, staged.size(), skipped, cancelled);
+    }
+
+    /**
+     * Replaces each backup with its staged, re-encrypted version.
+     * @return Backups whose staged file could not be moved into place, with the reason.
+     */
+    public Map<Path, String> commit() {
+        Map<Path, String> failed = new LinkedHashMap<>();
+        for (Map.Entry<Path, Path> entry : staged.entrySet()) {
+            try {
+                StorageService.moveReplacing(entry.getValue(), entry.getKey());
+            } catch (IOException e) {
+                failed.put(entry.getKey(), e.getMessage());
+            }
+        }
+        staged.clear();
+        return failed;
+    }
+
+    /**
+     * Deletes all staged files, leaving the backups unchanged.
+     */
+    public void discard() {
+        for (Path target : staged.values()) {
+            try {
+                Files.deleteIfExists(target);
+            } catch (IOException e) {
+                System.err.println("Warning: Could not delete staged backup " + target.getFileName());
+            }
+        }
+        staged.clear();
+    }
+
+    private static void awaitQuietly(ExecutorService pool) {
+        try {
+            pool.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
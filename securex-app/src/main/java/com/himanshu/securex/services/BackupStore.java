@@ -0,0 +1,321 @@
+package com.himanshu.securex.services;
+
+import com.himanshu.securex.diagnostics.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A content-addressed store of backup chunks, shared by all backups.
+ *
+ * A backup is a manifest like vault.dat's (see {@link VaultShards}), except that each shard lists
+ * chunks of this store instead of naming a shard file. A shard's plaintext is cut into chunks at
+ * content-defined boundaries (a gear rolling hash; 2-32 KB, about 10 KB on average), so editing an
+ * entry only changes the chunk around it. Each chunk is compressed, encrypted and stored once,
+ * named after a keyed hash of its plaintext ({@link CryptoService#contentId}); a chunk that is
+ * already present is not written again, however many backups list it.
+ *
+ * Chunks are never modified. {@link #deleteUnused} removes the ones no backup lists any more.
+ * Writing a backup and deleting chunks run under {@link #locked}, so another process cannot delete
+ * a chunk that a backup being written is about to list.
+ */
+final class BackupStore {
+
+    private static final int MIN_CHUNK_SIZE = 2 * 1024;
+    private static final int MAX_CHUNK_SIZE = 32 * 1024;
+    // A boundary wherever the top 13 bits of the hash are zero: one every 8 KB past the minimum
+    private static final int BOUNDARY_BITS = 13;
+    // Only the last 64 bytes affect the top bits of the hash
+    private static final int WINDOW = 64;
+    private static final int ID_BYTES = 16;
+
+    private static final byte STORED = 0;
+    private static final byte DEFLATED = 1;
+
+    private static final String CHUNK_SUFFIX = ".chunk";
+    private static final Pattern CHUNK_ID = Pattern.compile("^[0-9a-f]{" + ID_BYTES * 2 + "}$");
+
+    // One random value per byte. java.util.Random's sequence is fixed by its spec, so the same
+    // content is cut at the same places by every version
+    private static final long[] GEAR = new Random(0x5EC0_8E5CL).longs(256).toArray();
+
+    // A FileLock is held by the whole JVM, so stores in one process take turns before locking
+    private static final Object PROCESS_LOCK = new Object();
+
+    private static final Metrics.Counter CHUNKS_WRITTEN = Metrics.counter("backup.chunks.written");
+    private static final Metrics.Counter CHUNKS_REUSED = Metrics.counter("backup.chunks.reused");
+    private static final Metrics.Counter CHUNKS_DELETED = Metrics.counter("backup.chunks.deleted");
+
+    private final Path dir;
+
+    BackupStore(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Runs {@code task} holding the store's lock, which other processes using the store respect.
+     */
+    // The lock is only held for the duration of the try block, never referenced in it
+    @SuppressWarnings("try")
+    <T> T locked(Callable<T> task) throws Exception {
+        Files.createDirectories(dir);
+        synchronized (PROCESS_LOCK) {
+            try (FileChannel channel = FileChannel.open(dir.resolve(".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                return task.call();
+            }
+        }
+    }
+
+    /**
+     * Cuts {@code plain} into chunks and stores the ones that are not present yet.
+     * @return The ids of the chunks, in order.
+     */
+    List<String> put(InputStream plain, CryptoService crypto) throws IOException, GeneralSecurityException {
+        Files.createDirectories(dir);
+        List<String> ids = new ArrayList<>();
+        byte[] buffer = new byte[MAX_CHUNK_SIZE];
+        int length = 0;
+        boolean end = false;
+        try {
+            while (true) {
+                while (!end && length < buffer.length) {
+                    int n = plain.read(buffer, length, buffer.length - length);
+                    if (n < 0) {
+                        end = true;
+                    } else {
+                        length += n;
+                    }
+                }
+                if (length == 0) return ids;
+                int cut = boundary(buffer, length);
+                ids.add(store(buffer, cut, crypto));
+                System.arraycopy(buffer, cut, buffer, 0, length - cut);
+                Arrays.fill(buffer, length - cut, length, (byte) 0);
+                length -= cut;
+            }
+        } finally {
+            Arrays.fill(buffer, (byte) 0);
+        }
+    }
+
+    /**
+     * @return The length of the first chunk of {@code buffer}: up to the first boundary past the
+     * minimum size, or all of it if there is none.
+     */
+    private static int boundary(byte[] buffer, int length) {
+        if (length <= MIN_CHUNK_SIZE) return length;
+        long hash = 0;
+        for (int i = MIN_CHUNK_SIZE - WINDOW; i < length; i++) {
+            hash = (hash << 1) + GEAR[buffer[i] & 0xff];
+            if (i >= MIN_CHUNK_SIZE && hash >>> (64 - BOUNDARY_BITS) == 0) {
+                return i + 1;
+            }
+        }
+        return length;
+    }
+
+    private String store(byte[] plain, int length, CryptoService crypto) throws IOException, GeneralSecurityException {
+        String id = HexFormat.of().formatHex(crypto.contentId(plain, 0, length), 0, ID_BYTES);
+        Path file = dir.resolve(id + CHUNK_SUFFIX);
+        if (Files.exists(file)) {
+            CHUNKS_REUSED.add(1);
+            return id;
+        }
+        byte[] packed = pack(plain, length);
+        try {
+            byte[] sealed = crypto.encrypt(packed);
+            Path temp = dir.resolve(id + CHUNK_SUFFIX + ".tmp");
+            try {
+                Files.write(temp, sealed);
+                StorageService.moveReplacing(temp, file);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+        } finally {
+            Arrays.fill(packed, (byte) 0);
+        }
+        CHUNKS_WRITTEN.add(1);
+        return id;
+    }
+
+    /**
+     * @return Whether every chunk is present, so a backup can list them without storing them again.
+     */
+    boolean containsAll(List<String> ids) {
+        for (String id : ids) {
+            if (!CHUNK_ID.matcher(id).matches() || !Files.exists(dir.resolve(id + CHUNK_SUFFIX))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return The concatenated plaintext of the chunks. Each chunk is read, and checked against its
+     * id, only when the stream reaches it.
+     */
+    InputStream open(List<String> ids, CryptoService crypto) {
+        return new ChunkStream(ids.iterator(), crypto);
+    }
+
+    /**
+     * Deletes the chunks not in {@code live}, and temporary files left by interrupted writes.
+     * Call it under {@link #locked}.
+     * @return The number of chunks deleted.
+     */
+    int deleteUnused(Set<String> live) throws IOException {
+        if (!Files.isDirectory(dir)) return 0;
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(CHUNK_SUFFIX + ".tmp")) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(CHUNK_SUFFIX)
+                        && !live.contains(name.substring(0, name.length() - CHUNK_SUFFIX.length()))) {
+                    if (Files.deleteIfExists(file)) deleted++;
+                }
+            }
+        }
+        CHUNKS_DELETED.add(deleted);
+        return deleted;
+    }
+
+    /**
+     * Compresses a chunk, or keeps it as it is if it does not compress, behind a one-byte marker.
+     * zlib's own buffers are native memory that cannot be wiped; they are freed right away.
+     */
+    private static byte[] pack(byte[] plain, int length) {
+        byte[] out = new byte[1 + length];
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(plain, 0, length);
+            deflater.finish();
+            int n = deflater.deflate(out, 1, length);
+            if (deflater.finished() && n < length) {
+                out[0] = DEFLATED;
+                byte[] packed = Arrays.copyOf(out, 1 + n);
+                Arrays.fill(out, (byte) 0);
+                return packed;
+            }
+        } finally {
+            deflater.end();
+        }
+        out[0] = STORED;
+        System.arraycopy(plain, 0, out, 1, length);
+        return out;
+    }
+
+    private byte[] readChunk(String id, CryptoService crypto) throws IOException {
+        // The id comes from an authenticated manifest, but is never allowed to name another file
+        if (!CHUNK_ID.matcher(id).matches()) {
+            throw new IOException("Invalid chunk id in a backup manifest.");
+        }
+        byte[] packed = null;
+        byte[] plain = new byte[MAX_CHUNK_SIZE];
+        try {
+            packed = crypto.decrypt(Files.readAllBytes(dir.resolve(id + CHUNK_SUFFIX)));
+            int length;
+            if (packed.length > 0 && packed[0] == STORED && packed.length - 1 <= MAX_CHUNK_SIZE) {
+                length = packed.length - 1;
+                System.arraycopy(packed, 1, plain, 0, length);
+            } else if (packed.length > 0 && packed[0] == DEFLATED) {
+                length = inflate(packed, plain);
+            } else {
+                throw new IOException("Backup chunk " + id + " is damaged.");
+            }
+            byte[] actual = Arrays.copyOf(crypto.contentId(plain, 0, length), ID_BYTES);
+            if (!Arrays.equals(actual, HexFormat.of().parseHex(id))) {
+                throw new IOException("Backup chunk " + id + " is damaged.");
+            }
+            return Arrays.copyOf(plain, length);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Backup chunk " + id + " is damaged or was written with another key.", e);
+        } finally {
+            if (packed != null) Arrays.fill(packed, (byte) 0);
+            Arrays.fill(plain, (byte) 0);
+        }
+    }
+
+    private static int inflate(byte[] packed, byte[] plain) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(packed, 1, packed.length - 1);
+            int length = inflater.inflate(plain);
+            if (!inflater.finished()) throw new IOException("A backup chunk is damaged.");
+            return length;
+        } catch (DataFormatException e) {
+            throw new IOException("A backup chunk is damaged.", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Reads chunks one after another, wiping each once it has been consumed.
+     */
+    private final class ChunkStream extends InputStream {
+        private final Iterator<String> ids;
+        private final CryptoService crypto;
+        private byte[] current = new byte[0];
+        private int position = 0;
+
+        ChunkStream(Iterator<String> ids, CryptoService crypto) {
+            this.ids = ids;
+            this.crypto = crypto;
+        }
+
+        private boolean fill() throws IOException {
+            while (position == current.length) {
+                if (!ids.hasNext()) return false;
+                Arrays.fill(current, (byte) 0);
+                current = readChunk(ids.next(), crypto);
+                position = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) return -1;
+            return current[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (!fill()) return -1;
+            int n = Math.min(len, current.length - position);
+            System.arraycopy(current, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            Arrays.fill(current, (byte) 0);
+            current = new byte[0];
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package com.himanshu.securex.services;
+
+import com.himanshu.securex.diagnostics.Metrics;
+import com.himanshu.securex.diagnostics.VaultEvents;
+import com.himanshu.securex.model.SecretSealer;
+import com.himanshu.securex.util.HashUtil;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Handles the encryption and decryption of the password vault, and the sealing of
+ * individual entry secrets (see {@link SecretSealer}).
+ */
+public class CryptoService implements SecretSealer {
+
+    private static final String ENCRYPTION_ALGORITHM = "AES/GCM/NoPadding";
+    private static final String KEY_DERIVATION_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int TAG_LENGTH_BIT = 128;
+    private static final int IV_LENGTH_BYTE = 12;
+    private static final int TAG_LENGTH_BYTE = TAG_LENGTH_BIT / 8;
+    // Password-derived vault keys predate calibrated key derivation and always use the minimum
+    private static final int ITERATION_COUNT = HashUtil.MIN_ITERATIONS;
+    private static final int KEY_LENGTH = 256;
+    // Binds wrapped data keys to their purpose, so they cannot be confused with other ciphertexts
+    private static final byte[] DATA_KEY_AAD = "securex-data-key".getBytes(StandardCharsets.UTF_8);
+    // HKDF label of the subkey that names stored content by a keyed hash
+    private static final String CONTENT_ID_INFO = "securex-content-id";
+
+    // Cipher.getInstance and SecureRandom seeding are costly next to sealing a small record, and
+    // neither object is safe to share between threads. Each thread keeps its own instances; a GCM
+    // cipher is re-initialized with a fresh IV for every message, so reusing it is safe.
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(ENCRYPTION_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES-GCM is not available", e);
+        }
+    });
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(CryptoService::newRandom);
+
+    // Enough PBKDF2 rounds for the JIT to compile the HMAC loop, far below a real derivation
+    private static final int WARM_UP_ITERATIONS = 20_000;
+    private static final AtomicBoolean WARMED_UP = new AtomicBoolean(false);
+    private static final ThreadLocal<byte[]> IV_SCRATCH = ThreadLocal.withInitial(() -> new byte[IV_LENGTH_BYTE]);
+
+    private static final Metrics.Timer ENCRYPT_TIME = Metrics.timer("crypto.encrypt");
+    private static final Metrics.Timer DECRYPT_TIME = Metrics.timer("crypto.decrypt");
+    private static final Metrics.Counter ENCRYPT_BYTES = Metrics.counter("crypto.encrypt.bytes");
+    private static final Metrics.Counter DECRYPT_BYTES = Metrics.counter("crypto.decrypt.bytes");
+
+    private final SecretKey secretKey;
+    private final byte[] kdfSalt;
+    private final int kdfIterations;
+    // Derived on first use by contentId()
+    private volatile SecretKeySpec contentIdKey;
+
+    /**
+     * Initializes the service by deriving a strong encryption key from the master password and a salt.
+     * @param masterPassword The user's master password.
+     * @param salt The salt to use for key derivation.
+     */
+    public CryptoService(char[] masterPassword, byte[] salt) {
+        byte[] key = null;
+        try {
+            key = HashUtil.deriveKey(masterPassword, salt, ITERATION_COUNT);
+            this.secretKey = new SecretKeySpec(key, "AES");
+            this.kdfSalt = Arrays.copyOf(salt, salt.length);
+            this.kdfIterations = ITERATION_COUNT;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to initialize CryptoService", e);
+        } finally {
+            if (key != null) {
+                Arrays.fill(key, (byte) 0);
+            }
+            Arrays.fill(masterPassword, '\0');
+        }
+    }
+
+    /**
+     * Initializes the service with a random data key (see {@link #generateDataKey()}) instead of a
+     * password-derived one.
+     * @param dataKey The 256-bit AES key. It is wiped once the service holds its own copy.
+     */
+    public CryptoService(byte[] dataKey) {
+        try {
+            if (dataKey.length * 8 != KEY_LENGTH) {
+                throw new IllegalArgumentException("Data key must be " + KEY_LENGTH + " bits");
+            }
+            this.secretKey = new SecretKeySpec(dataKey, "AES");
+            this.kdfSalt = new byte[0];
+            this.kdfIterations = 0;
+        } finally {
+            Arrays.fill(dataKey, (byte) 0);
+        }
+    }
+
+    /**
+     * @return A new random 256-bit data key. The caller should wipe it after use.
+     */
+    public static byte[] generateDataKey() {
+        byte[] key = new byte[KEY_LENGTH / 8];
+        RANDOM.get().nextBytes(key);
+        return key;
+    }
+
+    /**
+     * Loads the JCE providers and runs the key derivation and AES-GCM code paths once, so the
+     * first real unlock does not pay for provider lookup, class loading and interpretation.
+     * Only the first call in a JVM does anything.
+     */
+    static void warmUp() throws GeneralSecurityException {
+        if (!WARMED_UP.compareAndSet(false, true)) return;
+        SecretKeyFactory.getInstance(KEY_DERIVATION_ALGORITHM);
+        byte[] key = HashUtil.deriveKey("warm-up".toCharArray(), new byte[16], WARM_UP_ITERATIONS);
+        byte[] subkey = HashUtil.expand(key, "warm-up", KEY_LENGTH / 8);
+        Arrays.fill(key, (byte) 0);
+        CryptoService crypto = new CryptoService(subkey);
+        crypto.decrypt(crypto.encrypt(new byte[1024]));
+    }
+
+    /**
+     * @return The salt the key was derived with, recorded in vault file headers. Empty for a data key.
+     */
+    byte[] getKdfSalt() {
+        return Arrays.copyOf(kdfSalt, kdfSalt.length);
+    }
+
+    /**
+     * @return The PBKDF2 iteration count the key was derived with, recorded in vault file headers.
+     * 0 for a data key.
+     */
+    int getKdfIterations() {
+        return kdfIterations;
+    }
+
+    private static SecureRandom newRandom() {
+        try {
+            // Instances of the DRBG are independent, unlike NativePRNG which funnels every thread through one lock
+            return SecureRandom.getInstance("DRBG");
+        } catch (GeneralSecurityException e) {
+            return new SecureRandom();
+        }
+    }
+
+    /**
+     * Returns this thread's AES-GCM cipher, initialized with this service's key, for callers that
+     * frame their own ciphertext (see {@link VaultFileFormat}). The cipher is reused by the next
+     * call on the same thread, so it must be finished with {@code doFinal} before then.
+     * @param mode  {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}.
+     * @param nonce The 12-byte nonce. It must never be reused for encryption.
+     * @param aad   Associated data to authenticate, or null.
+     */
+    Cipher initCipher(int mode, byte[] nonce, byte[] aad) throws GeneralSecurityException {
+        return initCipher(mode, nonce, 0, aad);
+    }
+
+    private Cipher initCipher(int mode, byte[] iv, int ivOffset, byte[] aad) throws GeneralSecurityException {
+        Cipher cipher = CIPHER.get();
+        cipher.init(mode, secretKey, new GCMParameterSpec(TAG_LENGTH_BIT, iv, ivOffset, IV_LENGTH_BYTE));
+        if (aad != null) {
+            cipher.updateAAD(aad);
+        }
+        return cipher;
+    }
+
+    /**
+     * @return The size of the output of {@link #encrypt(byte[], int, int, byte[], int)} for a plaintext of the given size.
+     */
+    public static int encryptedLength(int plainLength) {
+        return IV_LENGTH_BYTE + plainLength + TAG_LENGTH_BYTE;
+    }
+
+    /**
+     * @return The size of the output of {@link #decrypt(byte[], int, int, byte[], int)} for an input of the given size.
+     */
+    public static int decryptedLength(int encryptedLength) {
+        return Math.max(0, encryptedLength - IV_LENGTH_BYTE - TAG_LENGTH_BYTE);
+    }
+
+    /**
+     * Encrypts {@code len} bytes of {@code in} into {@code out} as IV + ciphertext + tag, without
+     * intermediate copies. {@code out} needs {@link #encryptedLength(int)} bytes from {@code outOffset}.
+     * @return The number of bytes written.
+     */
+    public int encrypt(byte[] in, int offset, int len, byte[] out, int outOffset) throws GeneralSecurityException {
+        return encrypt(in, offset, len, out, outOffset, null);
+    }
+
+    /**
+     * Decrypts IV + ciphertext + tag produced by {@link #encrypt(byte[], int, int, byte[], int)} into
+     * {@code out}, which needs {@link #decryptedLength(int)} bytes from {@code outOffset}.
+     * @return The number of plaintext bytes written.
+     */
+    public int decrypt(byte[] in, int offset, int len, byte[] out, int outOffset) throws GeneralSecurityException {
+        return decrypt(in, offset, len, out, outOffset, null);
+    }
+
+    /**
+     * Encrypts the given bytes.
+     * @return IV + ciphertext + tag.
+     */
+    public byte[] encrypt(byte[] plain) throws GeneralSecurityException {
+        byte[] out = new byte[encryptedLength(plain.length)];
+        encrypt(plain, 0, plain.length, out, 0, null);
+        return out;
+    }
+
+    /**
+     * Decrypts bytes produced by {@link #encrypt(byte[])}.
+     * @return The plaintext. The caller should wipe it after use if it is sensitive.
+     */
+    public byte[] decrypt(byte[] data) throws GeneralSecurityException {
+        return decrypt(data, 0, data.length, null);
+    }
+
+    private int encrypt(byte[] in, int offset, int len, byte[] out, int outOffset, byte[] aad) throws GeneralSecurityException {
+        long start = System.nanoTime();
+        VaultEvents.Cipher event = VaultEvents.beginCipher();
+        // The IV is copied into the output; GCMParameterSpec takes its own copy from there
+        byte[] iv = IV_SCRATCH.get();
+        RANDOM.get().nextBytes(iv);
+        System.arraycopy(iv, 0, out, outOffset, IV_LENGTH_BYTE);
+        Cipher cipher = initCipher(Cipher.ENCRYPT_MODE, out, outOffset, aad);
+        int written = IV_LENGTH_BYTE + cipher.doFinal(in, offset, len, out, outOffset + IV_LENGTH_BYTE);
+        recordCipher(event, true, len, start);
+        return written;
+    }
+
+    private int decrypt(byte[] in, int offset, int len, byte[] out, int outOffset, byte[] aad) throws GeneralSecurityException {
+        if (len < IV_LENGTH_BYTE + TAG_LENGTH_BYTE) {
+            throw new AEADBadTagException("Encrypted data is truncated.");
+        }
+        long start = System.nanoTime();
+        VaultEvents.Cipher event = VaultEvents.beginCipher();
+        Cipher cipher = initCipher(Cipher.DECRYPT_MODE, in, offset, aad);
+        int written = cipher.doFinal(in, offset + IV_LENGTH_BYTE, len - IV_LENGTH_BYTE, out, outOffset);
+        recordCipher(event, false, len, start);
+        return written;
+    }
+
+    /**
+     * Records a completed encryption or decryption of {@code bytes} of input in the metrics and
+     * commits its flight recorder event, if there is one.
+     */
+    static void recordCipher(VaultEvents.Cipher event, boolean encrypt, long bytes, long startNanos) {
+        (encrypt ? ENCRYPT_TIME : DECRYPT_TIME).recordSince(startNanos);
+        (encrypt ? ENCRYPT_BYTES : DECRYPT_BYTES).add(bytes);
+        if (event != null) {
+            event.operation = encrypt ? "encrypt" : "decrypt";
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    private byte[] decrypt(byte[] in, int offset, int len, byte[] aad) throws GeneralSecurityException {
+        byte[] out = new byte[decryptedLength(len)];
+        decrypt(in, offset, len, out, 0, aad);
+        return out;
+    }
+
+    /**
+     * Computes an HMAC-SHA256 of the given bytes under a subkey of this service's key, so content
+     * can be stored under a name derived from it without the name revealing the content.
+     */
+    public byte[] contentId(byte[] data, int offset, int len) {
+        Mac mac = newContentMac();
+        mac.update(data, offset, len);
+        return mac.doFinal();
+    }
+
+    /**
+     * @return An HMAC-SHA256 under the same subkey as {@link #contentId}, for content that is
+     * hashed while it streams past.
+     */
+    Mac newContentMac() {
+        try {
+            SecretKeySpec key = contentIdKey;
+            if (key == null) {
+                byte[] raw = secretKey.getEncoded();
+                try {
+                    key = new SecretKeySpec(HashUtil.expand(raw, CONTENT_ID_INFO, KEY_LENGTH / 8), "HmacSHA256");
+                } finally {
+                    Arrays.fill(raw, (byte) 0);
+                }
+                contentIdKey = key;
+            }
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    /**
+     * Encrypts a data key with this service's key, for storage next to the password verifier.
+     * @param dataKey The key to wrap. It is not modified.
+     * @return A Base64 encoded string of the wrapped key (IV + ciphertext).
+     */
+    public String wrapKey(byte[] dataKey) throws Exception {
+        byte[] out = new byte[encryptedLength(dataKey.length)];
+        encrypt(dataKey, 0, dataKey.length, out, 0, DATA_KEY_AAD);
+        return Base64.getEncoder().encodeToString(out);
+    }
+
+    /**
+     * Decrypts a data key wrapped by {@link #wrapKey(byte[])}.
+     * @param wrappedKey The Base64 encoded wrapped key.
+     * @return The data key. The caller should wipe it after use.
+     */
+    public byte[] unwrapKey(String wrappedKey) throws Exception {
+        byte[] decoded = Base64.getDecoder().decode(wrappedKey);
+        return decrypt(decoded, 0, decoded.length, DATA_KEY_AAD);
+    }
+
+    /**
+     * Encrypts the given plaintext data.
+     * @param plainText The data to encrypt.
+     * @return A Base64 encoded string of the encrypted data (IV + ciphertext).
+     */
+    public String encrypt(String plainText) throws Exception {
+        byte[] plainBytes = plainText.getBytes(StandardCharsets.UTF_8);
+        try {
+            return Base64.getEncoder().encodeToString(encrypt(plainBytes));
+        } finally {
+            Arrays.fill(plainBytes, (byte) 0);
+        }
+    }
+
+    /**
+     * Decrypts the given ciphertext.
+     * @param cipherTextWithIv The Base64 encoded string to decrypt.
+     * @return The original plaintext data.
+     */
+    public String decrypt(String cipherTextWithIv) throws Exception {
+        byte[] plainBytes = decrypt(Base64.getDecoder().decode(cipherTextWithIv));
+        try {
+            return new String(plainBytes, StandardCharsets.UTF_8);
+        } finally {
+            Arrays.fill(plainBytes, (byte) 0);
+        }
+    }
+
+    /**
+     * Opens an encrypting stream over {@code out}. The IV is written first, followed by the
+     * ciphertext; the authentication tag is appended when the returned stream is closed.
+     * This produces the same byte layout as {@link #encrypt(String)} before Base64 encoding.
+     * @param out The destination for the encrypted data.
+     * @return A stream that accepts plaintext.
+     */
+    public OutputStream encryptingStream(OutputStream out) throws Exception {
+        byte[] iv = new byte[IV_LENGTH_BYTE];
+        RANDOM.get().nextBytes(iv);
+
+        // The stream outlives this call, so it needs a cipher of its own rather than the thread's
+        Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
+        cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH_BIT, iv));
+        out.write(iv);
+        return new CipherOutputStream(out, cipher);
+    }
+
+    /**
+     * Opens a decrypting stream over data produced by {@link #encryptingStream(OutputStream)}.
+     * Tag verification failures surface as an {@link IOException} when the stream is read to the end.
+     * @param in The encrypted data (IV + ciphertext).
+     * @return A stream that yields the plaintext.
+     */
+    public InputStream decryptingStream(InputStream in) throws Exception {
+        byte[] iv = in.readNBytes(IV_LENGTH_BYTE);
+        if (iv.length != IV_LENGTH_BYTE) {
+            throw new IOException("Encrypted data is truncated.");
+        }
+
+        Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
+        cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH_BIT, iv));
+        return new CipherInputStream(in, cipher);
+    }
+
+    /**
+     * Seals a single entry secret with AES-GCM, binding the entry id as associated data.
+     * @param secret  The plaintext secret. It is not modified.
+     * @param entryId The id of the owning entry.
+     * @return A Base64 encoded string of the sealed secret (IV + ciphertext).
+     */
+    @Override
+    public String seal(char[] secret, String entryId) {
+        ByteBuffer encoded = StandardCharsets.UTF_8.encode(CharBuffer.wrap(secret));
+        try {
+            byte[] out = new byte[encryptedLength(encoded.remaining())];
+            encrypt(encoded.array(), encoded.arrayOffset() + encoded.position(), encoded.remaining(),
+                    out, 0, entryId.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(out);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to seal entry secret", e);
+        } finally {
+            Arrays.fill(encoded.array(), (byte) 0);
+        }
+    }
+
+    /**
+     * Opens a secret sealed by {@link #seal}.
+     * @param sealed  The Base64 encoded sealed secret.
+     * @param entryId The id of the owning entry.
+     * @return The plaintext secret. The caller should wipe it after use.
+     */
+    @Override
+    public char[] open(String sealed, String entryId) {
+        byte[] plainBytes = null;
+        try {
+            byte[] decoded = Base64.getDecoder().decode(sealed);
+            plainBytes = decrypt(decoded, 0, decoded.length, entryId.getBytes(StandardCharsets.UTF_8));
+
+            CharBuffer chars = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(plainBytes));
+            char[] secret = new char[chars.remaining()];
+            chars.get(secret);
+            if (chars.hasArray()) {
+                Arrays.fill(chars.array(), '\0');
+            }
+            return secret;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to open entry secret", e);
+        } finally {
+            if (plainBytes != null) {
+                Arrays.fill(plainBytes, (byte) 0);
+            }
+        }
+    }
+}
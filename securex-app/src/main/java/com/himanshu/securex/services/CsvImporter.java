@@ -0,0 +1,204 @@
+package com.himanshu.securex.services;
+
+import com.himanshu.securex.model.PasswordEntry;
+import com.himanshu.securex.util.DomainUtil;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Imports password entries from a CSV export of another password manager.
+ *
+ * The column layout is recognised from the header row. Chrome/Edge/Firefox, Bitwarden,
+ * 1Password and LastPass exports are supported; see {@link ColumnMapping#detect}. The file is
+ * streamed a record at a time. Each password is sealed as soon as its row is parsed, so
+ * plaintext only lives in the CSV reader's and decoder's buffers, which are wiped on close.
+ *
+ * Rows whose account, username and URL match an entry already in the vault, or an earlier row,
+ * are skipped. The new entries are written with a single {@link StorageService#save} at the end,
+ * so an import never leaves a partially imported vault behind.
+ */
+public class CsvImporter {
+
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    /**
+     * Receives progress updates from {@link #importFile}.
+     */
+    public interface ProgressListener {
+        void onProgress(long bytesRead, long totalBytes);
+
+        /**
+         * @return true to stop the import before anything is written.
+         */
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+
+    /**
+     * Outcome of an import.
+     * @param rows       Number of data rows read.
+     * @param imported   The entries added to the vault.
+     * @param duplicates Rows skipped because the entry already existed.
+     * @param invalid    Rows skipped because they had no password or no usable name.
+     */
+    public record Result(int rows, List<PasswordEntry> imported, int duplicates, int invalid) {
+    }
+
+    /**
+     * Positions of the columns that map onto entry fields, -1 where absent.
+     */
+    record ColumnMapping(int account, int username, int password, int url) {
+
+        private static final List<String> ACCOUNT_HEADERS = List.of("name", "title", "account");
+        private static final List<String> USERNAME_HEADERS = List.of("username", "login_username", "login", "user", "email");
+        private static final List<String> PASSWORD_HEADERS = List.of("password", "login_password");
+        private static final List<String> URL_HEADERS = List.of("url", "login_uri", "website", "uri", "hostname");
+
+        /**
+         * Matches header names case-insensitively, preferring the earlier alias of each list.
+         * @throws IOException if the header has no password column.
+         */
+        static ColumnMapping detect(List<String> header) throws IOException {
+            List<String> names = new ArrayList<>(header.size());
+            for (String name : header) {
+                names.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+            ColumnMapping mapping = new ColumnMapping(find(names, ACCOUNT_HEADERS), find(names, USERNAME_HEADERS),
+                    find(names, PASSWORD_HEADERS), find(names, URL_HEADERS));
+            if (mapping.password < 0) {
+                throw new IOException("Unrecognized CSV header: no password column in " + header + ".");
+            }
+            return mapping;
+        }
+
+        private static int find(List<String> names, List<String> aliases) {
+            for (String alias : aliases) {
+                int index = names.indexOf(alias);
+                if (index >= 0) return index;
+            }
+            return -1;
+        }
+    }
+
+    private final StorageService storageService;
+
+    public CsvImporter(StorageService storageService) {
+        this.storageService = storageService;
+    }
+
+    /**
+     * Reads {@code csvFile} and adds its new entries to the vault in one save.
+     *
+     * @throws CancellationException if the listener cancelled the import; the vault is unchanged.
+     * @throws IOException if the file cannot be read or is not a recognised export.
+     */
+    public Result importFile(Path csvFile, ProgressListener listener) throws Exception {
+        long totalBytes = Files.size(csvFile);
+        List<PasswordEntry> parsed = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        int rows = 0;
+        int duplicates = 0;
+        int invalid = 0;
+
+        try (CountingInputStream counter = new CountingInputStream(Files.newInputStream(csvFile));
+             CsvReader reader = new CsvReader(new SecureUtf8Reader(counter))) {
+            if (!reader.next()) {
+                return new Result(0, List.of(), 0, 0);
+            }
+            List<String> header = new ArrayList<>(reader.size());
+            for (int i = 0; i < reader.size(); i++) {
+                header.add(reader.get(i));
+            }
+            ColumnMapping mapping = ColumnMapping.detect(header);
+
+            while (reader.next()) {
+                rows++;
+                if (rows % PROGRESS_INTERVAL == 0) {
+                    if (listener.isCancelled()) throw new CancellationException();
+                    listener.onProgress(counter.count, totalBytes);
+                }
+
+                PasswordEntry entry = toEntry(reader, mapping);
+                if (entry == null) {
+                    invalid++;
+                } else if (!seen.add(dedupeKey(entry))) {
+                    duplicates++;
+                } else {
+                    storageService.attach(entry);
+                    parsed.add(entry);
+                }
+            }
+        }
+        if (listener.isCancelled()) throw new CancellationException();
+        listener.onProgress(totalBytes, totalBytes);
+
+        List<PasswordEntry> imported = storageService.addAll(parsed, CsvImporter::dedupeKey);
+        duplicates += parsed.size() - imported.size();
+        return new Result(rows, imported, duplicates, invalid);
+    }
+
+    /**
+     * The key entries are considered duplicates by: account, username and URL, ignoring case
+     * in the account and URL.
+     */
+    static String dedupeKey(PasswordEntry entry) {
+        return normalize(entry.getAccount()).toLowerCase(Locale.ROOT) + '\0'
+                + normalize(entry.getUsername()) + '\0'
+                + normalize(entry.getUrl()).toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    private static PasswordEntry toEntry(CsvReader reader, ColumnMapping mapping) {
+        String url = reader.get(mapping.url()).trim();
+        String username = reader.get(mapping.username()).trim();
+        String account = reader.get(mapping.account()).trim();
+        if (account.isEmpty()) {
+            // Browser exports often leave the name empty; fall back to the site
+            account = DomainUtil.registrableDomain(url);
+        }
+        char[] password = reader.getChars(mapping.password());
+        try {
+            if (password.length == 0 || account.isEmpty()) return null;
+            return new PasswordEntry(account, username, password, url);
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
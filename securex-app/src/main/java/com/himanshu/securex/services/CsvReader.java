@@ -0,0 +1,150 @@
+package com.himanshu.securex.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Streaming RFC 4180 CSV reader: quoted fields may contain commas, doubled quotes and line breaks.
+ *
+ * Only the current record is held in memory, in a reusable char buffer that is wiped before the
+ * next record is read and on {@link #close()}, since an exported vault carries passwords in
+ * plaintext. Use {@link #getChars(int)} for sensitive fields so they never become a String.
+ */
+final class CsvReader implements Closeable {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Reader in;
+    private final char[] readBuffer = new char[READ_BUFFER_SIZE];
+    private int readPos = 0;
+    private int readLimit = 0;
+    private boolean firstChar = true;
+
+    // The current record: field i spans fieldStart[i] until fieldEnd[i] in chars
+    private char[] chars = new char[256];
+    private int length = 0;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private int fieldCount = 0;
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the next non-empty record.
+     * @return false at the end of the input.
+     */
+    boolean next() throws IOException {
+        do {
+            if (!readRecord()) return false;
+        } while (fieldCount == 1 && fieldEnd[0] == fieldStart[0]);
+        return true;
+    }
+
+    int size() {
+        return fieldCount;
+    }
+
+    /**
+     * @return The field, or an empty string if the record has fewer fields.
+     */
+    String get(int field) {
+        if (field < 0 || field >= fieldCount) return "";
+        return new String(chars, fieldStart[field], fieldEnd[field] - fieldStart[field]);
+    }
+
+    /**
+     * @return A copy of the field that the caller should wipe after use.
+     */
+    char[] getChars(int field) {
+        if (field < 0 || field >= fieldCount) return new char[0];
+        return Arrays.copyOfRange(chars, fieldStart[field], fieldEnd[field]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        Arrays.fill(chars, '\0');
+        Arrays.fill(readBuffer, '\0');
+        in.close();
+    }
+
+    private boolean readRecord() throws IOException {
+        Arrays.fill(chars, 0, length, '\0');
+        length = 0;
+        fieldCount = 0;
+
+        int c = read();
+        if (c < 0) return false;
+        startField();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Unterminated quoted field in CSV.");
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') {
+                        // Closing quote; anything up to the next delimiter is kept as is
+                        quoted = false;
+                        continue;
+                    }
+                }
+                append((char) c);
+            } else if (c < 0 || c == '\n') {
+                endField();
+                return true;
+            } else if (c == ',') {
+                endField();
+                startField();
+            } else if (c == '"' && length == fieldStart[fieldCount]) {
+                quoted = true;
+            } else if (c != '\r') {
+                append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (readPos == readLimit) {
+            readLimit = in.read(readBuffer, 0, readBuffer.length);
+            readPos = 0;
+            if (readLimit <= 0) {
+                readLimit = 0;
+                return -1;
+            }
+        }
+        char c = readBuffer[readPos++];
+        if (firstChar) {
+            firstChar = false;
+            // Byte order mark written by spreadsheet programs
+            if (c == '\uFEFF') return read();
+        }
+        return c;
+    }
+
+    private void startField() {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = length;
+    }
+
+    private void endField() {
+        fieldEnd[fieldCount++] = length;
+    }
+
+    private void append(char c) {
+        if (length == chars.length) {
+            char[] grown = Arrays.copyOf(chars, length * 2);
+            Arrays.fill(chars, '\0');
+            chars = grown;
+        }
+        chars[length++] = c;
+    }
+}
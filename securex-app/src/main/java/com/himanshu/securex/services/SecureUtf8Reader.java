@@ -0,0 +1,89 @@
+package com.himanshu.securex.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A UTF-8 {@link Reader} that decodes through fixed, reusable buffers and wipes them on close.
+ * The counterpart of {@link SecureUtf8Writer}.
+ */
+class SecureUtf8Reader extends Reader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private boolean endOfInput = false;
+    private boolean finished = false;
+    private boolean closed = false;
+
+    SecureUtf8Reader(InputStream in) {
+        this.in = in;
+        bytes.flip();
+        chars.flip();
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        while (!chars.hasRemaining()) {
+            if (!fill()) return -1;
+        }
+        int n = Math.min(len, chars.remaining());
+        chars.get(cbuf, off, n);
+        return n;
+    }
+
+    /**
+     * Decodes the next batch of characters.
+     * @return false once the input is exhausted and no characters are left.
+     */
+    private boolean fill() throws IOException {
+        // The previous batch has been handed out already; wipe it before reusing the buffer
+        Arrays.fill(chars.array(), 0, chars.limit(), '\0');
+        chars.clear();
+        while (chars.position() == 0 && !finished) {
+            CoderResult result = decoder.decode(bytes, chars, endOfInput);
+            if (result.isOverflow()) break;
+            if (endOfInput) {
+                decoder.flush(chars);
+                finished = true;
+                break;
+            }
+            bytes.compact();
+            int n = in.read(bytes.array(), bytes.position(), bytes.remaining());
+            if (n < 0) {
+                endOfInput = true;
+            } else {
+                bytes.position(bytes.position() + n);
+            }
+            bytes.flip();
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            in.close();
+        } finally {
+            Arrays.fill(chars.array(), '\0');
+            Arrays.fill(bytes.array(), (byte) 0);
+        }
+    }
+}
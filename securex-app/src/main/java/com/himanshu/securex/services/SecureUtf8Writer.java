@@ -0,0 +1,97 @@
+package com.himanshu.securex.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A UTF-8 {@link Writer} that encodes through fixed, reusable buffers and wipes them on close.
+ * Unlike {@link java.io.OutputStreamWriter}, no plaintext is left behind in buffers the caller cannot reach.
+ */
+class SecureUtf8Writer extends Writer {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE * 3);
+    private boolean closed = false;
+
+    SecureUtf8Writer(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = Math.min(len, chars.remaining());
+            chars.put(cbuf, off, n);
+            off += n;
+            len -= n;
+            if (!chars.hasRemaining()) {
+                encodeChars(false);
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = Math.min(len, chars.remaining());
+            chars.put(str, off, off + n);
+            off += n;
+            len -= n;
+            if (!chars.hasRemaining()) {
+                encodeChars(false);
+            }
+        }
+    }
+
+    private void encodeChars(boolean endOfInput) throws IOException {
+        chars.flip();
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, bytes, endOfInput);
+            drainBytes();
+        } while (result.isOverflow());
+        // Keep a trailing high surrogate for the next round
+        chars.compact();
+    }
+
+    private void drainBytes() throws IOException {
+        out.write(bytes.array(), 0, bytes.position());
+        Arrays.fill(bytes.array(), 0, bytes.position(), (byte) 0);
+        bytes.clear();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        encodeChars(false);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            encodeChars(true);
+            encoder.flush(bytes);
+            drainBytes();
+            out.close();
+        } finally {
+            Arrays.fill(chars.array(), '\0');
+            Arrays.fill(bytes.array(), (byte) 0);
+        }
+    }
+}
@@ -18,6 +18,15 @@ public class SettingsService {
     private static final String AUTO_LOCK_TIMEOUT_KEY = "autolock.timeout.minutes";
     private static final int DEFAULT_AUTO_LOCK_TIMEOUT = 5; // 5 minutes default
 
+    private static final String SAVE_DEBOUNCE_KEY = "save.debounce.millis";
+    private static final int DEFAULT_SAVE_DEBOUNCE = 300;
+
+    private static final String KDF_TARGET_KEY = "kdf.target.millis";
+    private static final int DEFAULT_KDF_TARGET = 300;
+
+    private static final String ENTRY_SORT_KEY = "entries.sort";
+    private static final String DEFAULT_ENTRY_SORT = "NAME";
+
     private final Properties properties;
 
     public SettingsService() {
@@ -78,4 +87,55 @@ public class SettingsService {
         properties.setProperty(AUTO_LOCK_TIMEOUT_KEY, String.valueOf(timeoutMinutes));
         saveSettings();
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets how long edits are collected before they are written to disk as one batch.
+     * @return The debounce window in milliseconds.
+     */
+    public int getSaveDebounceMillis() {
+        String value = properties.getProperty(SAVE_DEBOUNCE_KEY);
+        if (value == null) return DEFAULT_SAVE_DEBOUNCE;
+        try {
+            return Math.max(0, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return DEFAULT_SAVE_DEBOUNCE;
+        }
+    }
+
+    /**
+     * Gets how long deriving the master key should take on this machine. The PBKDF2 iteration
+     * count is calibrated to it whenever the master password is set or changed.
+     * @return The target derivation time in milliseconds.
+     */
+    public int getKdfTargetMillis() {
+        String value = properties.getProperty(KDF_TARGET_KEY);
+        if (value == null) return DEFAULT_KDF_TARGET;
+        try {
+            return Math.max(1, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return DEFAULT_KDF_TARGET;
+        }
+    }
+
+    /**
+     * Sets the target derivation time. It takes effect at the next password change.
+     * @param millis The target in milliseconds.
+     */
+    public void setKdfTargetMillis(int millis) {
+        properties.setProperty(KDF_TARGET_KEY, String.valueOf(millis));
+        saveSettings();
+    }
+
+    /**
+     * Gets how the entry list is ordered.
+     * @return The name of the sort mode, e.g. "NAME".
+     */
+    public String getEntrySortMode() {
+        return properties.getProperty(ENTRY_SORT_KEY, DEFAULT_ENTRY_SORT);
+    }
+
+    public void setEntrySortMode(String mode) {
+        properties.setProperty(ENTRY_SORT_KEY, mode);
+        saveSettings();
+    }
+}
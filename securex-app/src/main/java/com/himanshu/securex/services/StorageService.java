@@ -0,0 +1,805 @@
+package com.himanshu.securex.services;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.himanshu.securex.diagnostics.Metrics;
+import com.himanshu.securex.diagnostics.VaultEvents;
+import com.himanshu.securex.model.PasswordEntry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Manages the persistence of the encrypted password vault to the user's local filesystem.
+ * Vault and backup files use the binary container described in {@link VaultFileFormat};
+ * files in the older Base64 text format are still read and are migrated on first load.
+ *
+ * This service is responsible for both loading the vault from disk and saving it securely.
+ * It incorporates robust data safety features:
+ *
+ * 1. Automatic Encrypted Backups:
+ * Before any save operation, the existing vault is backed up to a dedicated backups
+ * directory with a timestamp. Metadata (entry count) is embedded in the filename
+ * for fast inspection. A backup file is a small manifest; the content is kept in a
+ * deduplicated, compressed chunk store (see {@link BackupStore}), so hundreds of
+ * backups take little more space than the vault itself.
+ *
+ * 2. Atomic Save Operations:
+ * To prevent data loss, all new data is first written to a temporary file.
+ * Only after the writing operation is fully successful is the temporary file
+ * atomically moved to replace the main vault file.
+ *
+ * 3. Rotating Restore Points:
+ * When restoring a backup, the current state is saved to a rotating set of
+ * "vault-before-restore" files, ensuring data is never lost even during
+ * multiple panicked restore attempts.
+ *
+ * 4. Append-only Journal:
+ * Single-entry edits ({@link #put} / {@link #delete}) are appended to an encrypted
+ * journal (vault.log) instead of rewriting the whole vault. Once enough records have
+ * accumulated, a background compactor backs up the base snapshot and folds the journal
+ * into a new one. {@link #load()} replays the journal on top of the base snapshot.
+ *
+ * 5. Shards:
+ * The base snapshot is split into shard files (see {@link VaultShards}) and vault.dat is the
+ * manifest listing them. A snapshot only rewrites the shards whose entries changed, and loading
+ * decrypts the shards in parallel. A vault.dat that holds the entries themselves, as written by
+ * older versions, is still read and is sharded by the next save.
+ */
+public class StorageService {
+    private static final Path DEFAULT_APP_DIR = Paths.get(System.getProperty("user.home"), ".securex");
+
+    private static final int MAX_REGULAR_BACKUPS = 200;
+    private static final int MAX_RESTORE_POINTS = 20;
+    // Number of journal records after which the journal is folded into a new base snapshot
+    private static final int COMPACTION_THRESHOLD = 64;
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final Type ENTRY_LIST_TYPE = new TypeToken<ArrayList<PasswordEntry>>() {}.getType();
+
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss");
+    // Regex to extract count from filename: matches ending with _(\d+).dat
+    private static final Pattern COUNT_PATTERN = Pattern.compile("_(\\d+)\\.dat$");
+
+    private static final Metrics.Timer SAVE_TIME = Metrics.timer("storage.save");
+    private static final Metrics.Timer LOAD_TIME = Metrics.timer("storage.load");
+    private static final Metrics.Timer BACKUP_TIME = Metrics.timer("storage.backup");
+    private static final Metrics.Timer PRUNE_TIME = Metrics.timer("storage.prune");
+    private static final Metrics.Counter SAVED_BYTES = Metrics.counter("storage.save.bytes");
+    private static final Metrics.Counter LOADED_ENTRIES = Metrics.counter("storage.load.entries");
+    private static final Metrics.Counter PRUNED_BACKUPS = Metrics.counter("storage.prune.deleted");
+    private static final Metrics.Gauge VAULT_ENTRIES = Metrics.gauge("vault.entries");
+    private static final Metrics.Gauge BACKUP_FILES = Metrics.gauge("storage.backup.files");
+
+    private final Path vaultFile;
+    private final Path tempFile;
+    private final Path journalFile;
+    private final Path backupsDir;
+    private final CryptoService cryptoService;
+    private final Gson gson;
+    private final VaultJournal journal;
+    private final VaultShards shards;
+    private final BackupStore backupStore;
+    private final ExecutorService compactor;
+
+    private boolean compactionScheduled = false;
+    // Chunks of the shards in the last backup written, by shard hash, so unchanged shards are not read again
+    private Map<String, List<String>> backedUpShards = Map.of();
+    // Backups known not to list shard files, which deleteUnusedShards() need not read again
+    private final Set<String> backupsWithoutShardFiles = ConcurrentHashMap.newKeySet();
+
+    public StorageService(CryptoService cryptoService) {
+        this(cryptoService, DEFAULT_APP_DIR);
+    }
+
+    /**
+     * Creates a service for the vault in {@code appDir} instead of the user's ~/.securex,
+     * e.g. for benchmarks against a scratch directory.
+     */
+    public StorageService(CryptoService cryptoService, Path appDir) {
+        this.vaultFile = appDir.resolve("vault.dat");
+        this.tempFile = appDir.resolve("vault.tmp");
+        this.journalFile = appDir.resolve("vault.log");
+        this.backupsDir = appDir.resolve("backups");
+        this.cryptoService = cryptoService;
+        this.gson = new Gson();
+        this.journal = new VaultJournal(journalFile, cryptoService, new Gson());
+        this.backupStore = new BackupStore(backupsDir.resolve("chunks"));
+        this.shards = new VaultShards(appDir.resolve("shards"), backupStore, gson);
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "securex-vault-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Writes a full snapshot of the given entries, backing up the current vault first.
+     * Use {@link #put} / {@link #delete} for single-entry edits.
+     * Does nothing if the entries are already the vault's content, unchanged.
+     */
+    public synchronized void save(List<PasswordEntry> entries) throws Exception {
+        if (isSaved(entries)) return;
+        backupCurrentVault();
+        saveWithoutBackup(entries);
+    }
+
+    /**
+     * @return Whether vault.dat holds exactly {@code entries}, none of them changed since they were
+     * read or written, and no journaled edit is pending, so a save would change nothing.
+     */
+    private boolean isSaved(List<PasswordEntry> entries) {
+        if (!journal.isEmpty()) return false;
+        // Entries bound to another key are re-sealed, which makes them dirty
+        for (PasswordEntry entry : entries) {
+            entry.attach(cryptoService);
+        }
+        return VaultShards.isSaved(entries, readManifest(vaultFile));
+    }
+
+    /**
+     * Adds entries to the vault as one full snapshot (backing up the current vault first), skipping
+     * those whose key matches an entry already stored. Reading the current entries and writing the
+     * result happen under the vault lock, so edits journaled in the meantime are not lost.
+     *
+     * @param key Maps an entry to the key duplicates are detected by.
+     * @return The entries that were added.
+     */
+    public synchronized List<PasswordEntry> addAll(List<PasswordEntry> candidates,
+                                                   Function<PasswordEntry, String> key) throws Exception {
+        List<PasswordEntry> entries = readVault();
+        Set<String> existing = new HashSet<>();
+        for (PasswordEntry entry : entries) {
+            existing.add(key.apply(entry));
+        }
+        List<PasswordEntry> added = new ArrayList<>();
+        for (PasswordEntry candidate : candidates) {
+            if (existing.add(key.apply(candidate))) {
+                added.add(candidate);
+            }
+        }
+        if (!added.isEmpty()) {
+            entries.addAll(added);
+            save(entries);
+        }
+        return added;
+    }
+
+    /**
+     * Binds an entry to this vault's key, so its password is only held in sealed form.
+     */
+    public void attach(PasswordEntry entry) {
+        entry.attach(cryptoService);
+    }
+
+    /**
+     * Records an added or updated entry in the journal.
+     */
+    public void put(PasswordEntry entry) throws Exception {
+        apply(List.of(entry), List.of());
+    }
+
+    /**
+     * Records the removal of an entry in the journal.
+     */
+    public void delete(PasswordEntry entry) throws Exception {
+        if (entry.getId() == null) return;
+        apply(List.of(), List.of(entry.getId()));
+    }
+
+    /**
+     * Records a batch of added/updated entries and removed entry ids in the journal with a single write.
+     */
+    public synchronized void apply(Collection<PasswordEntry> upserts, Collection<String> deletedIds) throws Exception {
+        for (PasswordEntry entry : upserts) {
+            entry.attach(cryptoService);
+        }
+        journal.append(upserts, deletedIds);
+        scheduleCompactionIfNeeded();
+    }
+
+    /**
+     * Folds the journal into a new base snapshot, backing up the previous snapshot first.
+     */
+    public synchronized void compact() throws Exception {
+        compactionScheduled = false;
+        if (journal.isEmpty()) return;
+        List<PasswordEntry> entries = readVault();
+        save(entries);
+        for (PasswordEntry entry : entries) {
+            entry.clearPassword();
+        }
+    }
+
+    private void scheduleCompactionIfNeeded() {
+        if (compactionScheduled || journal.getRecordCount() < COMPACTION_THRESHOLD) return;
+        compactionScheduled = true;
+        compactor.execute(() -> {
+            try {
+                compact();
+            } catch (Exception e) {
+                System.err.println("Warning: Vault compaction failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Waits for a pending compaction to finish and stops the background compactor.
+     */
+    public void close() {
+        compactor.shutdown();
+        try {
+            if (!compactor.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.err.println("Warning: Vault compaction did not finish in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Saves the entries to disk WITHOUT creating a backup of the existing file first.
+     * Only the shards whose entries changed are written; the new manifest then replaces vault.dat
+     * in one move. The journal is cleared, since the new snapshot supersedes it.
+     * Does nothing if the entries are already the vault's content, unchanged.
+     */
+    public synchronized void saveWithoutBackup(List<PasswordEntry> entries) throws Exception {
+        if (isSaved(entries)) return;
+        long start = System.nanoTime();
+        VaultEvents.Storage event = VaultEvents.beginStorage();
+        VaultShards.Manifest manifest = shards.write(entries, readManifest(vaultFile), cryptoService);
+        writeManifest(tempFile, manifest);
+        moveReplacing(tempFile, vaultFile);
+        journal.clear();
+        for (PasswordEntry entry : entries) {
+            entry.markSaved(manifest.generation);
+        }
+        deleteUnusedShards();
+
+        SAVE_TIME.recordSince(start);
+        long bytes = Files.size(vaultFile);
+        SAVED_BYTES.add(bytes);
+        VAULT_ENTRIES.set(entries.size());
+        commit(event, "save", entries.size(), bytes);
+    }
+
+    private void writeManifest(Path target, VaultShards.Manifest manifest) throws Exception {
+        FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try (JsonWriter writer = gson.newJsonWriter(new SecureUtf8Writer(
+                VaultFileFormat.openWriter(channel, cryptoService, manifest.entryCount())))) {
+            gson.toJson(manifest, VaultShards.Manifest.class, writer);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads the manifest in a vault or backup file with this service's key.
+     * @return The manifest, or null if the file holds the entries themselves, is missing, or was
+     * written with another key.
+     */
+    private VaultShards.Manifest readManifest(Path file) {
+        try {
+            if (!Files.exists(file) || Files.size(file) == 0 || !VaultFileFormat.isBinary(file)) return null;
+            try (JsonReader reader = gson.newJsonReader(new SecureUtf8Reader(VaultFileFormat.openReader(file, cryptoService)))) {
+                return reader.peek() == JsonToken.BEGIN_OBJECT ? gson.fromJson(reader, VaultShards.Manifest.class) : null;
+            }
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Deletes the shard files that neither vault.dat nor any backup lists. Nothing is deleted if a
+     * binary backup cannot be read with this key, as it may list shards as well.
+     */
+    private void deleteUnusedShards() {
+        try {
+            List<VaultShards.Manifest> manifests = new ArrayList<>();
+            VaultShards.Manifest current = readManifest(vaultFile);
+            if (current != null) manifests.add(current);
+            for (Path backup : getBackupFiles()) {
+                String name = backup.getFileName().toString();
+                if (backupsWithoutShardFiles.contains(name)) continue;
+                if (Files.size(backup) == 0 || !VaultFileFormat.isBinary(backup)) continue;
+                VaultShards.Manifest manifest = readManifest(backup);
+                if (manifest != null) {
+                    manifests.add(manifest);
+                    if (manifest.shards.stream().allMatch(shard -> shard.file == null)) {
+                        backupsWithoutShardFiles.add(name);
+                    }
+                } else if (holdsEntries(backup)) {
+                    backupsWithoutShardFiles.add(name);
+                } else {
+                    return;
+                }
+            }
+            shards.deleteUnused(manifests);
+        } catch (IOException e) {
+            System.err.println("Warning: Could not delete unused vault shards: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Whether the file can be read with this key and holds entries rather than a manifest.
+     */
+    private boolean holdsEntries(Path file) {
+        try (JsonReader reader = gson.newJsonReader(new SecureUtf8Reader(VaultFileFormat.openReader(file, cryptoService)))) {
+            return reader.peek() == JsonToken.BEGIN_ARRAY;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a timestamped backup of the current vault.dat.
+     * The entry count for the filename comes from the file header, and only the shards changed
+     * since the last backup are read and stored (see {@link #writeBackup}).
+     */
+    public synchronized void backupCurrentVault() {
+        if (Files.exists(vaultFile)) {
+            long start = System.nanoTime();
+            VaultEvents.Storage event = VaultEvents.beginStorage();
+            try {
+                Files.createDirectories(backupsDir);
+
+                int count = countEntries(vaultFile);
+
+                String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMATTER);
+                String countSuffix = (count >= 0) ? "_" + count : "_error";
+
+                Path backupFile = backupsDir.resolve("vault-" + timestamp + countSuffix + ".dat");
+
+                backupStore.locked(() -> {
+                    writeBackup(backupFile);
+                    pruneBackups();
+                    return null;
+                });
+
+                BACKUP_TIME.recordSince(start);
+                commit(event, "backup", count, Files.size(backupFile));
+            } catch (Exception e) {
+                System.err.println("Warning: Failed to create backup before save: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Replaces the vault with the entries of a backup, after saving the current vault as a restore point.
+     */
+    public synchronized void restoreFromBackup(Path backupFile) throws Exception {
+        // Fold pending journal records into vault.dat so the restore point captures them
+        compact();
+
+        // Read first, so a backup that cannot be read leaves the vault as it is
+        List<PasswordEntry> entries = readBackup(backupFile);
+        try {
+            backupStore.locked(() -> {
+                if (Files.exists(vaultFile)) {
+                    // Create a safe restore point of the data we are about to overwrite
+                    int count = countEntries(vaultFile);
+
+                    String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMATTER);
+                    String countSuffix = (count >= 0) ? "_" + count : "_unknown";
+
+                    Path preRestoreBackup = backupsDir.resolve("vault-before-restore-" + timestamp + countSuffix + ".dat");
+                    writeBackup(preRestoreBackup);
+                }
+                return null;
+            });
+
+            saveWithoutBackup(entries);
+            backupStore.locked(() -> {
+                pruneBackups();
+                return null;
+            });
+        } finally {
+            for (PasswordEntry entry : entries) {
+                entry.clearPassword();
+            }
+        }
+    }
+
+    /**
+     * Writes a backup of vault.dat to {@code target}: a manifest that lists, for each shard, its
+     * chunks in the backup store. Only shards missing from the last backup written are read and
+     * chunked, and only chunks not stored yet are written. A vault.dat that is not a manifest
+     * readable with this key is linked or copied instead. Call it under {@link BackupStore#locked}.
+     */
+    private void writeBackup(Path target) throws Exception {
+        VaultShards.Manifest current = readManifest(vaultFile);
+        if (current == null) {
+            linkOrCopy(vaultFile, target);
+            return;
+        }
+
+        VaultShards.Manifest backup = new VaultShards.Manifest();
+        backup.shardCount = current.shardCount;
+        backup.generation = current.generation;
+        Map<String, List<String>> chunksByHash = new HashMap<>();
+        for (VaultShards.Shard shard : current.shards) {
+            List<String> chunks = backedUpShards.get(shard.hash);
+            if (chunks == null || !backupStore.containsAll(chunks)) {
+                try (InputStream plain = shards.open(shard, cryptoService)) {
+                    chunks = backupStore.put(plain, cryptoService);
+                }
+            }
+            VaultShards.Shard copy = new VaultShards.Shard();
+            copy.index = shard.index;
+            copy.entries = shard.entries;
+            // The chunk ids already identify the content
+            copy.chunks = chunks;
+            backup.shards.add(copy);
+            chunksByHash.put(shard.hash, chunks);
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            writeManifest(temp, backup);
+            moveReplacing(temp, target);
+        } catch (Exception e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        backedUpShards = chunksByHash;
+        backupsWithoutShardFiles.add(target.getFileName().toString());
+    }
+
+    /**
+     * vault.dat is only ever replaced by moving a new file over it, never rewritten in place,
+     * so a hard link keeps the old content intact.
+     */
+    private static void linkOrCopy(Path source, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Gets the entry count from the file header. Only files written by older versions,
+     * whose header does not record it, are decrypted to count their entries.
+     * @return The count, or -1 if it could not be determined.
+     */
+    private int countEntries(Path vaultFile) {
+        try {
+            VaultMetadata metadata = VaultFileFormat.readMetadata(vaultFile);
+            if (metadata != null && metadata.entryCount() >= 0) {
+                return metadata.entryCount();
+            }
+            return readEntries(vaultFile, cryptoService).size();
+        } catch (Exception e) {
+            System.err.println("Warning: Could not read the entry count of " + vaultFile.getFileName() + ".");
+            return -1;
+        }
+    }
+
+    /**
+     * Reads the plaintext header metadata of a vault or backup file without decrypting it.
+     * @return The metadata, or null for files in the legacy text format or unreadable files.
+     */
+    public VaultMetadata readMetadata(Path vaultFile) {
+        try {
+            return VaultFileFormat.readMetadata(vaultFile);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Fast method to get the entry count of a backup from its header, without the key.
+     * Falls back to the count embedded in the filename for files without one.
+     * Returns -1 if neither is available (legacy file).
+     */
+    public int getEntryCountFast(Path backupFile) {
+        VaultMetadata metadata = readMetadata(backupFile);
+        if (metadata != null && metadata.entryCount() >= 0) {
+            return metadata.entryCount();
+        }
+
+        String filename = backupFile.getFileName().toString();
+
+        Matcher matcher = COUNT_PATTERN.matcher(filename);
+        if (matcher.find()) {
+            try {
+                return Integer.parseInt(matcher.group(1));
+            } catch (NumberFormatException ignored) {}
+        }
+
+        return -1;
+    }
+
+    /**
+     * Streams the entries as JSON through the cipher into a binary vault container
+     * (see {@link VaultFileFormat}), without building the JSON or the ciphertext in memory.
+     */
+    private void writeEntries(Path target, List<PasswordEntry> entries, CryptoService crypto) throws Exception {
+        FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try (JsonWriter writer = gson.newJsonWriter(new SecureUtf8Writer(
+                new BufferedOutputStream(VaultFileFormat.openWriter(channel, crypto, entries.size()), STREAM_BUFFER_SIZE)))) {
+            gson.toJson(entries, ENTRY_LIST_TYPE, writer);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Streams and parses the entries from a vault file. Both the binary container and the
+     * legacy Base64 text format are accepted, and a manifest is followed to its shards.
+     */
+    private List<PasswordEntry> readEntries(Path source, CryptoService crypto) throws Exception {
+        if (Files.size(source) == 0) return new ArrayList<>();
+        InputStream plain = VaultFileFormat.isBinary(source)
+                ? VaultFileFormat.openReader(source, crypto)
+                : openLegacyReader(source, crypto);
+        VaultShards.Manifest manifest;
+        try (JsonReader reader = gson.newJsonReader(new SecureUtf8Reader(new BufferedInputStream(plain, STREAM_BUFFER_SIZE)))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                List<PasswordEntry> entries = gson.fromJson(reader, ENTRY_LIST_TYPE);
+                return entries != null ? entries : new ArrayList<>();
+            }
+            manifest = gson.fromJson(reader, VaultShards.Manifest.class);
+        }
+        return shards.read(manifest, crypto);
+    }
+
+    private InputStream openLegacyReader(Path source, CryptoService crypto) throws Exception {
+        InputStream decoded = Base64.getDecoder().wrap(
+                new BufferedInputStream(Files.newInputStream(source), STREAM_BUFFER_SIZE));
+        try {
+            return crypto.decryptingStream(decoded);
+        } catch (Exception e) {
+            decoded.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Rewrites vault.dat and any backups still in the legacy Base64 format as binary containers.
+     * Backups keep their filenames. Files that cannot be decrypted with the current key are skipped.
+     */
+    private synchronized void migrateLegacyFiles() {
+        try {
+            if (Files.exists(vaultFile) && Files.size(vaultFile) > 0 && !VaultFileFormat.isBinary(vaultFile)) {
+                List<PasswordEntry> entries = readVault();
+                saveWithoutBackup(entries);
+            }
+            for (Path backup : getBackupFiles()) {
+                if (Files.size(backup) == 0 || VaultFileFormat.isBinary(backup)) continue;
+                try {
+                    List<PasswordEntry> entries = readEntries(backup, cryptoService);
+                    Path temp = backup.resolveSibling(backup.getFileName() + ".tmp");
+                    writeEntries(temp, entries, cryptoService);
+                    moveReplacing(temp, backup);
+                } catch (Exception e) {
+                    System.err.println("Skipping migration of backup " + backup.getFileName() + ": " + e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: Could not migrate vault files to the binary format: " + e.getMessage());
+        }
+    }
+
+    static void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads the entries of a backup file with this service's key.
+     */
+    public List<PasswordEntry> readBackup(Path backupFile) throws Exception {
+        List<PasswordEntry> entries = readEntries(backupFile, cryptoService);
+        for (PasswordEntry entry : entries) {
+            entry.attach(cryptoService);
+        }
+        return entries;
+    }
+
+    private void pruneBackups() throws IOException {
+        if (!Files.exists(backupsDir)) return;
+
+        long start = System.nanoTime();
+        VaultEvents.BackupPrune event = VaultEvents.beginBackupPrune();
+        int deleted = 0;
+        try (Stream<Path> stream = Files.list(backupsDir)) {
+            List<Path> allFiles = stream
+                    .filter(Files::isRegularFile)
+                    .sorted((a, b) -> b.getFileName().toString().compareTo(a.getFileName().toString()))
+                    .collect(Collectors.toList());
+
+            List<Path> regularBackups = new ArrayList<>();
+            List<Path> restorePoints = new ArrayList<>();
+
+            for (Path p : allFiles) {
+                String name = p.getFileName().toString();
+                if (name.startsWith("vault-before-restore-")) {
+                    restorePoints.add(p);
+                } else if (name.startsWith("vault-") && name.endsWith(".dat")) {
+                    regularBackups.add(p);
+                }
+            }
+
+            if (regularBackups.size() > MAX_REGULAR_BACKUPS) {
+                for (int i = MAX_REGULAR_BACKUPS; i < regularBackups.size(); i++) {
+                    if (Files.deleteIfExists(regularBackups.get(i))) deleted++;
+                }
+            }
+            if (restorePoints.size() > MAX_RESTORE_POINTS) {
+                for (int i = MAX_RESTORE_POINTS; i < restorePoints.size(); i++) {
+                    if (Files.deleteIfExists(restorePoints.get(i))) deleted++;
+                }
+            }
+
+            if (deleted > 0) {
+                deleteUnusedChunks();
+            }
+
+            int kept = Math.min(regularBackups.size(), MAX_REGULAR_BACKUPS)
+                    + Math.min(restorePoints.size(), MAX_RESTORE_POINTS);
+            PRUNE_TIME.recordSince(start);
+            PRUNED_BACKUPS.add(deleted);
+            BACKUP_FILES.set(kept);
+            if (event != null) {
+                event.kept = kept;
+                event.deleted = deleted;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Garbage-collects the backup store after backups were pruned: collects the chunks that the
+     * remaining backups' manifests list and deletes every other chunk. Nothing is deleted if a binary
+     * backup cannot be read with this key, as it may list chunks as well.
+     */
+    private void deleteUnusedChunks() throws IOException {
+        Set<String> referenced = new HashSet<>();
+        for (Path backup : getBackupFiles()) {
+            if (Files.size(backup) == 0 || !VaultFileFormat.isBinary(backup)) continue;
+            VaultShards.Manifest manifest = readManifest(backup);
+            if (manifest != null) {
+                for (VaultShards.Shard shard : manifest.shards) {
+                    if (shard.chunks != null) referenced.addAll(shard.chunks);
+                }
+            } else if (!holdsEntries(backup)) {
+                return;
+            }
+        }
+        backupStore.deleteUnused(referenced);
+    }
+
+    /**
+     * Loads the base snapshot and replays the journal on top of it.
+     */
+    public synchronized List<PasswordEntry> load() throws Exception {
+        long start = System.nanoTime();
+        VaultEvents.Storage event = VaultEvents.beginStorage();
+        List<PasswordEntry> entries = readVault();
+        LOAD_TIME.recordSince(start);
+        LOADED_ENTRIES.add(entries.size());
+        VAULT_ENTRIES.set(entries.size());
+        commit(event, "load", entries.size(), Files.exists(vaultFile) ? Files.size(vaultFile) : 0);
+
+        if (Files.exists(vaultFile) && Files.size(vaultFile) > 0 && !VaultFileFormat.isBinary(vaultFile)) {
+            // Vault written by an older version: convert it and its backups in the background
+            compactor.execute(this::migrateLegacyFiles);
+        } else {
+            scheduleCompactionIfNeeded();
+        }
+        return entries;
+    }
+
+    /**
+     * Returns a value that changes whenever the vault or its journal is written, by this or any other
+     * process. Lets a long-lived reader such as the agent notice edits with two file stats instead of
+     * a reload. Compaction changes it too, even though the entries stay the same.
+     */
+    public long getChangeStamp() throws IOException {
+        return fileStamp(vaultFile) * 31 + fileStamp(journalFile);
+    }
+
+    private static long fileStamp(Path file) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS) * 31 + attributes.size();
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    private static void commit(VaultEvents.Storage event, String operation, int entries, long bytes) {
+        if (event == null) return;
+        event.operation = operation;
+        event.entries = entries;
+        event.bytes = bytes;
+        event.commit();
+    }
+
+    private List<PasswordEntry> readVault() throws Exception {
+        Map<String, PasswordEntry> entriesById = new LinkedHashMap<>();
+        for (PasswordEntry entry : loadBaseSnapshot()) {
+            entry.ensureId();
+            entriesById.put(entry.getId(), entry);
+        }
+        journal.replay(entriesById);
+        // Secrets stay sealed; only legacy plaintext passwords are sealed here
+        for (PasswordEntry entry : entriesById.values()) {
+            entry.attach(cryptoService);
+        }
+        return new ArrayList<>(entriesById.values());
+    }
+
+    private List<PasswordEntry> loadBaseSnapshot() throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            if (!Files.exists(vaultFile)) return new ArrayList<>();
+            try {
+                return readEntries(vaultFile, cryptoService);
+            } catch (NoSuchFileException e) {
+                // Another process saved the vault and removed the shards of the manifest read here
+                if (attempt == 3) throw e;
+            }
+        }
+    }
+
+    public List<Path> getBackupFiles() throws IOException {
+        if (!Files.exists(backupsDir)) return new ArrayList<>();
+        try (Stream<Path> stream = Files.list(backupsDir)) {
+            return stream.filter(Files::isRegularFile)
+                    .filter(p -> !p.getFileName().toString().endsWith(".tmp"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Re-encrypts a single backup from the old key to the new key, writing the result to
+     * {@code target}. The backup itself is left untouched. Safe to call from several threads.
+     */
+    public void reencryptBackup(Path backup, Path target, CryptoService oldCrypto, CryptoService newCrypto) throws Exception {
+        // Entry secrets are sealed individually, so they have to be re-sealed as well
+        List<PasswordEntry> entries = readEntries(backup, oldCrypto);
+        for (PasswordEntry entry : entries) {
+            entry.attach(oldCrypto);
+            entry.attach(newCrypto);
+        }
+        writeEntries(target, entries, newCrypto);
+    }
+}
@@ -0,0 +1,75 @@
+package com.himanshu.securex.services;
+
+import com.google.gson.Gson;
+import com.himanshu.securex.model.PasswordEntry;
+import com.himanshu.securex.util.SecretArena;
+
+import java.util.List;
+
+/**
+ * A vault that has been decrypted and prepared for display, ready to hand to the dashboard.
+ *
+ * {@link #open} does all the slow work of showing a vault: reading and decrypting it, building
+ * the search index, and deriving each entry's sort keys. It is meant to run on a background thread.
+ * The result must only be used by one thread at a time; the dashboard takes it over on the UI thread.
+ *
+ * @param storage The storage service bound to the vault's key.
+ * @param entries The vault's entries.
+ * @param index   A search index over {@code entries}.
+ */
+public record UnlockedVault(StorageService storage, List<PasswordEntry> entries, VaultIndex index) {
+
+    /**
+     * Starts exercising the unlock path on a low-priority background thread: the crypto providers
+     * and key derivation ({@link CryptoService#warmUp()}), the secret arena, plus the JSON binding
+     * and collation used to load entries. Meant to be called while the user is still typing the password.
+     */
+    public static void warmUp() {
+        Thread warmer = new Thread(() -> {
+            try {
+                CryptoService.warmUp();
+                // Loads the native C library the arena locks its memory with
+                SecretArena.getDefault();
+                PasswordEntry sample = new PasswordEntry("warm-up", "warm-up", new char[0], "https://warm-up.example");
+                Gson gson = new Gson();
+                gson.fromJson(gson.toJson(List.of(sample)), PasswordEntry[].class)[0].getNameKey();
+                sample.getDomain();
+            } catch (Exception e) {
+                // Only an optimization; the real unlock reports any actual problem
+                System.err.println("Warning: Unlock warm-up failed: " + e.getMessage());
+            }
+        }, "securex-unlock-warm-up");
+        warmer.setDaemon(true);
+        warmer.setPriority(Thread.MIN_PRIORITY);
+        warmer.start();
+    }
+
+    public static UnlockedVault open(CryptoService cryptoService) throws Exception {
+        StorageService storage = new StorageService(cryptoService);
+        try {
+            List<PasswordEntry> entries = storage.load();
+            VaultIndex index = new VaultIndex();
+            index.rebuild(entries);
+            for (PasswordEntry entry : entries) {
+                // Cached on the entry, so the first sort on the UI thread only compares
+                entry.getNameKey();
+                entry.getDomain();
+            }
+            return new UnlockedVault(storage, entries, index);
+        } catch (Exception e) {
+            storage.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Releases a vault that will not be shown after all, e.g. because the unlock was cancelled.
+     */
+    public void discard() {
+        storage.close();
+        for (PasswordEntry entry : entries) {
+            entry.clearPassword();
+        }
+        index.clear();
+    }
+}
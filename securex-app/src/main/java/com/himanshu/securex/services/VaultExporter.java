@@ -0,0 +1,307 @@
+package com.himanshu.securex.services;
+
+import com.himanshu.securex.model.PasswordEntry;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Exports entries to CSV, JSON, or a password-encrypted bundle.
+ *
+ * Entries are written one at a time through a buffered channel. Neither the document nor a
+ * password ever becomes a String: each password is decrypted into a char array, escaped into a
+ * reusable scratch buffer, written and wiped. The UTF-8 encoder's buffers are wiped on close as well
+ * (see {@link SecureUtf8Writer}).
+ *
+ * The encrypted bundle is the JSON export sealed in the same chunked AES-GCM container as the
+ * vault ({@link VaultFileFormat}). Its key is derived from the bundle password with PBKDF2, and
+ * the salt and iteration count are recorded in the header, so the bundle can be opened anywhere
+ * with the password alone.
+ */
+public class VaultExporter {
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int BUNDLE_SALT_LENGTH = 16;
+    private static final int PROGRESS_INTERVAL = 500;
+
+    public enum Format {
+        CSV("CSV", "csv"),
+        JSON("JSON", "json"),
+        ENCRYPTED_BUNDLE("Encrypted bundle", "sxbundle");
+
+        private final String label;
+        private final String extension;
+
+        Format(String label, String extension) {
+            this.label = label;
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * The entry fields that can be exported, in output order. The names are chosen so that
+     * {@link CsvImporter} reads a CSV export back.
+     */
+    public enum Field {
+        ACCOUNT("name"),
+        USERNAME("username"),
+        PASSWORD("password"),
+        URL("url"),
+        MODIFIED("modified");
+
+        private final String columnName;
+
+        Field(String columnName) {
+            this.columnName = columnName;
+        }
+
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+
+    /**
+     * Receives progress updates from {@link #export}.
+     */
+    public interface ProgressListener {
+        void onProgress(int written, int total);
+
+        /**
+         * @return true to stop the export; the partially written file is deleted.
+         */
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+
+    private final char[] scratch = new char[256];
+    private int scratchLength = 0;
+
+    /**
+     * Writes {@code entries} to {@code target}, replacing it.
+     *
+     * @param entries        The entries to export. The list must not change while exporting.
+     * @param fields         The fields to include.
+     * @param bundlePassword The password for {@link Format#ENCRYPTED_BUNDLE}, ignored otherwise.
+     *                       It is wiped.
+     * @throws CancellationException if the listener cancelled the export.
+     */
+    public void export(List<PasswordEntry> entries, Path target, Format format, Set<Field> fields,
+                       char[] bundlePassword, ProgressListener listener) throws IOException {
+        Field[] columns = Field.values();
+        columns = Arrays.stream(columns).filter(fields::contains).toArray(Field[]::new);
+
+        // Written next to the target and moved over it at the end, so a failed or cancelled export
+        // leaves an existing file alone
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        boolean completed = false;
+        try (FileChannel channel = openOwnerOnly(temp);
+             Writer writer = new SecureUtf8Writer(new BufferedOutputStream(
+                     openStream(channel, format, bundlePassword, entries.size()), STREAM_BUFFER_SIZE))) {
+            if (format == Format.CSV) {
+                writeCsv(writer, entries, columns, listener);
+            } else {
+                writeJson(writer, entries, columns, listener);
+            }
+            completed = true;
+        } finally {
+            if (bundlePassword != null) {
+                Arrays.fill(bundlePassword, '\0');
+            }
+            Arrays.fill(scratch, '\0');
+            if (!completed) {
+                Files.deleteIfExists(temp);
+            }
+        }
+        StorageService.moveReplacing(temp, target);
+    }
+
+    /**
+     * Creates the file readable by its owner only where the file system supports POSIX permissions,
+     * since a plaintext export holds every password.
+     */
+    private static FileChannel openOwnerOnly(Path file) throws IOException {
+        Files.deleteIfExists(file);
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return FileChannel.open(file, Set.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+        return FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private static OutputStream openStream(FileChannel channel, Format format, char[] bundlePassword,
+                                           int entryCount) throws IOException {
+        if (format != Format.ENCRYPTED_BUNDLE) {
+            return Channels.newOutputStream(channel);
+        }
+        if (bundlePassword == null || bundlePassword.length == 0) {
+            throw new IllegalArgumentException("An encrypted bundle needs a password.");
+        }
+        byte[] salt = new byte[BUNDLE_SALT_LENGTH];
+        new SecureRandom().nextBytes(salt);
+        // The constructor wipes the password it is given
+        CryptoService bundleCrypto = new CryptoService(Arrays.copyOf(bundlePassword, bundlePassword.length), salt);
+        return VaultFileFormat.openWriter(channel, bundleCrypto, entryCount);
+    }
+
+    private void writeCsv(Writer writer, List<PasswordEntry> entries, Field[] columns,
+                          ProgressListener listener) throws IOException {
+        for (int c = 0; c < columns.length; c++) {
+            if (c > 0) writer.write(',');
+            writer.write(columns[c].getColumnName());
+        }
+        writer.write("\r\n");
+
+        for (int i = 0; i < entries.size(); i++) {
+            reportProgress(listener, i, entries.size());
+            PasswordEntry entry = entries.get(i);
+            for (int c = 0; c < columns.length; c++) {
+                if (c > 0) writer.write(',');
+                if (columns[c] == Field.PASSWORD) {
+                    char[] password = entry.getPassword();
+                    try {
+                        writeCsvField(writer, password, password.length);
+                    } finally {
+                        Arrays.fill(password, '\0');
+                    }
+                } else {
+                    String value = textValue(entry, columns[c]);
+                    writeCsvField(writer, value.toCharArray(), value.length());
+                }
+            }
+            writer.write("\r\n");
+        }
+        listener.onProgress(entries.size(), entries.size());
+    }
+
+    private void writeJson(Writer writer, List<PasswordEntry> entries, Field[] columns,
+                           ProgressListener listener) throws IOException {
+        writer.write('[');
+        for (int i = 0; i < entries.size(); i++) {
+            reportProgress(listener, i, entries.size());
+            PasswordEntry entry = entries.get(i);
+            writer.write(i == 0 ? "\n  {" : ",\n  {");
+            for (int c = 0; c < columns.length; c++) {
+                if (c > 0) writer.write(", ");
+                writer.write('"');
+                writer.write(columns[c].getColumnName());
+                writer.write("\": ");
+                if (columns[c] == Field.PASSWORD) {
+                    char[] password = entry.getPassword();
+                    try {
+                        writeJsonString(writer, password, password.length);
+                    } finally {
+                        Arrays.fill(password, '\0');
+                    }
+                } else {
+                    String value = textValue(entry, columns[c]);
+                    writeJsonString(writer, value.toCharArray(), value.length());
+                }
+            }
+            writer.write('}');
+        }
+        writer.write(entries.isEmpty() ? "]\n" : "\n]\n");
+        listener.onProgress(entries.size(), entries.size());
+    }
+
+    private static void reportProgress(ProgressListener listener, int written, int total) {
+        if (written % PROGRESS_INTERVAL != 0) return;
+        if (listener.isCancelled()) throw new CancellationException();
+        listener.onProgress(written, total);
+    }
+
+    private static String textValue(PasswordEntry entry, Field field) {
+        String value = switch (field) {
+            case ACCOUNT -> entry.getAccount();
+            case USERNAME -> entry.getUsername();
+            case URL -> entry.getUrl();
+            case MODIFIED -> entry.getModifiedAt() > 0 ? Instant.ofEpochMilli(entry.getModifiedAt()).toString() : "";
+            case PASSWORD -> throw new IllegalArgumentException("Passwords are written from char arrays.");
+        };
+        return value != null ? value : "";
+    }
+
+    /**
+     * Writes a CSV field, quoted only if it contains a delimiter, quote or line break.
+     */
+    private void writeCsvField(Writer writer, char[] value, int length) throws IOException {
+        boolean needsQuotes = false;
+        for (int i = 0; i < length && !needsQuotes; i++) {
+            char c = value[i];
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(value, 0, length);
+            return;
+        }
+        scratchLength = 0;
+        append(writer, '"');
+        for (int i = 0; i < length; i++) {
+            if (value[i] == '"') append(writer, '"');
+            append(writer, value[i]);
+        }
+        append(writer, '"');
+        flushScratch(writer);
+    }
+
+    private void writeJsonString(Writer writer, char[] value, int length) throws IOException {
+        scratchLength = 0;
+        append(writer, '"');
+        for (int i = 0; i < length; i++) {
+            char c = value[i];
+            switch (c) {
+                case '"' -> { append(writer, '\\'); append(writer, '"'); }
+                case '\\' -> { append(writer, '\\'); append(writer, '\\'); }
+                case '\n' -> { append(writer, '\\'); append(writer, 'n'); }
+                case '\r' -> { append(writer, '\\'); append(writer, 'r'); }
+                case '\t' -> { append(writer, '\\'); append(writer, 't'); }
+                default -> {
+                    if (c < 0x20) {
+                        String escape = String.format("\\u%04x", (int) c);
+                        for (int k = 0; k < escape.length(); k++) append(writer, escape.charAt(k));
+                    } else {
+                        append(writer, c);
+                    }
+                }
+            }
+        }
+        append(writer, '"');
+        flushScratch(writer);
+    }
+
+    private void append(Writer writer, char c) throws IOException {
+        if (scratchLength == scratch.length) {
+            flushScratch(writer);
+        }
+        scratch[scratchLength++] = c;
+    }
+
+    private void flushScratch(Writer writer) throws IOException {
+        writer.write(scratch, 0, scratchLength);
+        Arrays.fill(scratch, 0, scratchLength, '\0');
+        scratchLength = 0;
+    }
+}
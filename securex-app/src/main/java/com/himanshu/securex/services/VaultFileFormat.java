@@ -0,0 +1,433 @@
+package com.himanshu.securex.services;
+
+import com.himanshu.securex.diagnostics.VaultEvents;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * The binary vault container used for vault.dat and backups.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   magic          4 bytes   0x89 'S' 'X' 'V'
+ *   version        1 byte
+ *   kdf algorithm  1 byte    0 = none (random data key, wrapped in master.dat), 1 = PBKDF2WithHmacSHA256
+ *   kdf iterations 4 bytes
+ *   salt length    1 byte, followed by the salt
+ *   chunk size     4 bytes   plaintext bytes per chunk
+ *   nonce prefix   7 bytes
+ *   entry count    4 bytes   (version 2+)
+ *   created at     8 bytes   epoch milliseconds (version 2+)
+ *   content hash  32 bytes   HMAC-SHA256 of the plaintext payload under the vault key
+ *                            ({@link CryptoService#contentId}); an unkeyed SHA-256 in version 2
+ *   chunks         AES-GCM ciphertext + 16-byte tag per chunk
+ * </pre>
+ *
+ * The payload is split into fixed-size chunks that are sealed independently (the "STREAM"
+ * construction), so reading and writing never need more than one chunk in memory. Each chunk's
+ * nonce is the prefix followed by the chunk index and a final-chunk flag, which rejects reordered,
+ * dropped or truncated chunks.
+ *
+ * The header is bound to the chunks as associated data. The content hash is only known once the
+ * payload has been written, so it is filled in last: all chunks but the final one authenticate the
+ * header with a zeroed hash, and the final chunk authenticates the complete header. This lets the
+ * metadata be read in O(1) without the key ({@link #readMetadata}) while any tampering with it is
+ * still detected on decryption. The hash is keyed because the header is readable by anyone: an
+ * unkeyed hash would let them confirm a guess of the plaintext.
+ *
+ * Files that do not start with the magic bytes are the legacy Base64 text format.
+ */
+final class VaultFileFormat {
+
+    static final byte[] MAGIC = {(byte) 0x89, 'S', 'X', 'V'};
+    static final int VERSION = 3;
+    // Adds the metadata, with an unkeyed content hash
+    private static final int VERSION_METADATA = 2;
+    private static final int VERSION_CHUNKED = 1;
+
+    private static final int KDF_NONE = 0;
+    private static final int KDF_PBKDF2_SHA256 = 1;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int TAG_LENGTH_BYTE = 16;
+    private static final int NONCE_PREFIX_LENGTH = 7;
+    private static final int NONCE_LENGTH = 12;
+    private static final int HASH_LENGTH = 32;
+    private static final int METADATA_LENGTH = 4 + 8 + HASH_LENGTH;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private VaultFileFormat() {}
+
+    /**
+     * @return true if the file starts with the binary container's magic bytes.
+     */
+    static boolean isBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // keep reading until the magic is complete or the file ends
+            }
+            return !magic.hasRemaining() && Arrays.equals(magic.array(), MAGIC);
+        }
+    }
+
+    /**
+     * Writes the header to the channel and returns a stream that encrypts everything written to it.
+     * Closing the stream seals the final chunk, fills in the content hash and closes the channel.
+     * @param entryCount The number of entries in the payload, recorded in the header.
+     */
+    static OutputStream openWriter(FileChannel channel, CryptoService crypto, int entryCount) throws IOException {
+        byte[] salt = crypto.getKdfSalt();
+        byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+        RANDOM.nextBytes(noncePrefix);
+
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length + 7 + salt.length + 4 + NONCE_PREFIX_LENGTH + METADATA_LENGTH);
+        header.put(MAGIC)
+                .put((byte) VERSION)
+                .put((byte) (crypto.getKdfIterations() > 0 ? KDF_PBKDF2_SHA256 : KDF_NONE))
+                .putInt(crypto.getKdfIterations())
+                .put((byte) salt.length)
+                .put(salt)
+                .putInt(CHUNK_SIZE)
+                .put(noncePrefix)
+                .putInt(entryCount)
+                .putLong(System.currentTimeMillis())
+                .put(new byte[HASH_LENGTH]);
+        header.flip();
+        byte[] headerBytes = Arrays.copyOf(header.array(), header.limit());
+        writeFully(channel, header);
+
+        return new ChunkedEncryptingStream(channel, crypto, noncePrefix, headerBytes, CHUNK_SIZE);
+    }
+
+    /**
+     * Reads and validates the header and returns a stream that decrypts the payload chunk by chunk.
+     * Authentication failures surface as an {@link IOException} from the stream.
+     */
+    static InputStream openReader(Path file, CryptoService crypto) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            Header header = readHeader(channel);
+            return new ChunkedDecryptingStream(channel, crypto, header);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the plaintext metadata from the header without decrypting anything.
+     * @return The metadata, or null if the file is not a binary container.
+     */
+    static VaultMetadata readMetadata(Path file) throws IOException {
+        if (!isBinary(file)) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            return new VaultMetadata(header.version, header.entryCount,
+                    header.createdAt >= 0 ? Instant.ofEpochMilli(header.createdAt) : null,
+                    header.contentHash);
+        }
+    }
+
+    /**
+     * A parsed header, together with the raw bytes that are authenticated as associated data.
+     */
+    private static final class Header {
+        int version;
+        int chunkSize;
+        byte[] noncePrefix;
+        int entryCount = -1;
+        long createdAt = -1;
+        byte[] contentHash;
+        byte[] bytes;
+        private byte[] bytesWithoutHash;
+
+        /**
+         * @return The associated data for a chunk: the complete header for the final chunk of a
+         * version 2+ file, otherwise the header with the content hash zeroed.
+         */
+        byte[] associatedData(boolean last) {
+            if (version < VERSION_METADATA || last) return bytes;
+            if (bytesWithoutHash == null) {
+                bytesWithoutHash = Arrays.copyOf(bytes, bytes.length);
+                Arrays.fill(bytesWithoutHash, bytes.length - HASH_LENGTH, bytes.length, (byte) 0);
+            }
+            return bytesWithoutHash;
+        }
+    }
+
+    private static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer fixed = readFully(channel, MAGIC.length + 7);
+        byte[] magic = new byte[MAGIC.length];
+        fixed.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a SecureX vault file.");
+        }
+        Header header = new Header();
+        header.version = fixed.get() & 0xFF;
+        if (header.version != VERSION && header.version != VERSION_METADATA && header.version != VERSION_CHUNKED) {
+            throw new IOException("Unsupported vault format version " + header.version + ".");
+        }
+        fixed.get();    // kdf algorithm
+        fixed.getInt(); // kdf iterations
+        int saltLength = fixed.get() & 0xFF;
+
+        int metadataLength = header.version >= VERSION_METADATA ? METADATA_LENGTH : 0;
+        ByteBuffer rest = readFully(channel, saltLength + 4 + NONCE_PREFIX_LENGTH + metadataLength);
+        rest.position(saltLength);
+        header.chunkSize = rest.getInt();
+        if (header.chunkSize <= 0 || header.chunkSize > 16 * 1024 * 1024) {
+            throw new IOException("Invalid vault chunk size.");
+        }
+        header.noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+        rest.get(header.noncePrefix);
+        if (header.version >= VERSION_METADATA) {
+            header.entryCount = rest.getInt();
+            header.createdAt = rest.getLong();
+            header.contentHash = new byte[HASH_LENGTH];
+            rest.get(header.contentHash);
+        }
+
+        header.bytes = new byte[fixed.capacity() + rest.capacity()];
+        System.arraycopy(fixed.array(), 0, header.bytes, 0, fixed.capacity());
+        System.arraycopy(rest.array(), 0, header.bytes, fixed.capacity(), rest.capacity());
+        return header;
+    }
+
+    private static byte[] chunkNonce(byte[] prefix, int index, boolean last) {
+        byte[] nonce = new byte[NONCE_LENGTH];
+        System.arraycopy(prefix, 0, nonce, 0, NONCE_PREFIX_LENGTH);
+        nonce[7] = (byte) (index >>> 24);
+        nonce[8] = (byte) (index >>> 16);
+        nonce[9] = (byte) (index >>> 8);
+        nonce[10] = (byte) index;
+        nonce[11] = (byte) (last ? 1 : 0);
+        return nonce;
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Vault file is truncated.");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Buffers plaintext into one chunk and seals it once it is full and more data follows.
+     * The last chunk is sealed on close, so a full final chunk is still marked as final.
+     */
+    private static final class ChunkedEncryptingStream extends OutputStream {
+        private final FileChannel channel;
+        private final CryptoService crypto;
+        private final byte[] noncePrefix;
+        private final byte[] header;
+        private final byte[] plain;
+        private final ByteBuffer sealed;
+        private final Mac contentMac;
+        private int length = 0;
+        private int index = 0;
+        private boolean closed = false;
+
+        ChunkedEncryptingStream(FileChannel channel, CryptoService crypto, byte[] noncePrefix, byte[] header, int chunkSize) {
+            this.channel = channel;
+            this.crypto = crypto;
+            this.noncePrefix = noncePrefix;
+            this.header = header;
+            this.plain = new byte[chunkSize];
+            this.sealed = ByteBuffer.allocate(chunkSize + TAG_LENGTH_BYTE);
+            this.contentMac = crypto.newContentMac();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (length == plain.length) {
+                    sealChunk(false);
+                }
+                int n = Math.min(len, plain.length - length);
+                System.arraycopy(b, off, plain, length, n);
+                length += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        private void sealChunk(boolean last) throws IOException {
+            contentMac.update(plain, 0, length);
+            if (last) {
+                // The header written up front has a zeroed hash; the final chunk authenticates the real one
+                byte[] hash = contentMac.doFinal();
+                System.arraycopy(hash, 0, header, header.length - HASH_LENGTH, HASH_LENGTH);
+            }
+            try {
+                long start = System.nanoTime();
+                VaultEvents.Cipher event = VaultEvents.beginCipher();
+                Cipher cipher = crypto.initCipher(Cipher.ENCRYPT_MODE, chunkNonce(noncePrefix, index, last), header);
+                sealed.clear();
+                cipher.doFinal(ByteBuffer.wrap(plain, 0, length), sealed);
+                CryptoService.recordCipher(event, true, length, start);
+                sealed.flip();
+                writeFully(channel, sealed);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Failed to encrypt vault chunk.", e);
+            } finally {
+                Arrays.fill(plain, 0, length, (byte) 0);
+            }
+            length = 0;
+            index++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                sealChunk(true);
+                ByteBuffer hash = ByteBuffer.wrap(header, header.length - HASH_LENGTH, HASH_LENGTH);
+                long offset = header.length - HASH_LENGTH;
+                while (hash.hasRemaining()) {
+                    offset += channel.write(hash, offset);
+                }
+            } finally {
+                Arrays.fill(plain, (byte) 0);
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Reads, authenticates and decrypts one chunk at a time into a reusable buffer.
+     */
+    private static final class ChunkedDecryptingStream extends InputStream {
+        private final FileChannel channel;
+        private final CryptoService crypto;
+        private final Header header;
+        private final int chunkSize;
+        private final ByteBuffer sealed;
+        private final byte[] plain;
+        // One of them, depending on the format version; neither if it records no content hash
+        private final Mac contentMac;
+        private final MessageDigest legacyDigest;
+        private int position = 0;
+        private int length = 0;
+        private int index = 0;
+        private boolean lastSeen = false;
+
+        ChunkedDecryptingStream(FileChannel channel, CryptoService crypto, Header header) {
+            this.channel = channel;
+            this.crypto = crypto;
+            this.header = header;
+            this.chunkSize = header.chunkSize;
+            this.sealed = ByteBuffer.allocate(chunkSize + TAG_LENGTH_BYTE);
+            this.plain = new byte[chunkSize];
+            this.contentMac = header.version >= VERSION ? crypto.newContentMac() : null;
+            this.legacyDigest = header.version == VERSION_METADATA ? newSha256() : null;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            while (position == length) {
+                if (lastSeen) return -1;
+                openChunk();
+            }
+            int n = Math.min(len, length - position);
+            System.arraycopy(plain, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        private void openChunk() throws IOException {
+            long remaining = channel.size() - channel.position();
+            if (remaining < TAG_LENGTH_BYTE) {
+                throw new IOException("Vault file is truncated.");
+            }
+            boolean last = remaining <= chunkSize + TAG_LENGTH_BYTE;
+            sealed.clear();
+            sealed.limit((int) Math.min(remaining, chunkSize + TAG_LENGTH_BYTE));
+            while (sealed.hasRemaining()) {
+                if (channel.read(sealed) < 0) {
+                    throw new IOException("Vault file is truncated.");
+                }
+            }
+            sealed.flip();
+
+            Arrays.fill(plain, 0, length, (byte) 0);
+            try {
+                long start = System.nanoTime();
+                VaultEvents.Cipher event = VaultEvents.beginCipher();
+                int sealedLength = sealed.remaining();
+                Cipher cipher = crypto.initCipher(Cipher.DECRYPT_MODE,
+                        chunkNonce(header.noncePrefix, index, last), header.associatedData(last));
+                length = cipher.doFinal(sealed, ByteBuffer.wrap(plain));
+                CryptoService.recordCipher(event, false, sealedLength, start);
+            } catch (AEADBadTagException e) {
+                throw new IOException("Vault file failed authentication. It may be corrupt or the password may be incorrect.", e);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Failed to decrypt vault chunk.", e);
+            }
+            position = 0;
+            index++;
+            lastSeen = last;
+
+            if (contentMac != null) contentMac.update(plain, 0, length);
+            if (legacyDigest != null) legacyDigest.update(plain, 0, length);
+            if (last && header.contentHash != null) {
+                byte[] hash = contentMac != null ? contentMac.doFinal() : legacyDigest.digest();
+                if (!MessageDigest.isEqual(hash, header.contentHash)) {
+                    throw new IOException("Vault content hash does not match its header.");
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            Arrays.fill(plain, (byte) 0);
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,490 @@
+package com.himanshu.securex.services;
+
+import com.himanshu.securex.model.PasswordEntry;
+import com.himanshu.securex.util.FuzzyMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * In-memory trigram index over the account, username and URL of the vault's entries, for
+ * case-insensitive substring search.
+ *
+ * Every entry occupies a slot. For each trigram, the index keeps the sorted slots of the entries
+ * containing it as a primitive int array. A query intersects the postings of its trigrams, starting
+ * with the rarest, and confirms the few remaining candidates with a plain substring check.
+ * Queries shorter than a trigram scan the indexed text instead.
+ *
+ * Secrets are never indexed. The index is not thread-safe; it is meant to be used from the UI thread.
+ */
+public class VaultIndex {
+
+    // Keeps trigrams from spanning two fields
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private final TrigramTable postings = new TrigramTable();
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private final List<PasswordEntry> entries = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+
+    /**
+     * Replaces the indexed entries.
+     */
+    public void rebuild(Collection<PasswordEntry> newEntries) {
+        clear();
+        for (PasswordEntry entry : newEntries) {
+            // Slots are handed out in increasing order here, so postings stay sorted by appending
+            update(entry);
+        }
+    }
+
+    /**
+     * Adds an entry, or re-indexes it after its fields changed.
+     */
+    public void update(PasswordEntry entry) {
+        entry.ensureId();
+        Integer existing = slotById.get(entry.getId());
+        String text = indexText(entry);
+        if (existing != null) {
+            int slot = existing;
+            entries.set(slot, entry);
+            if (text.equals(texts.get(slot))) return;
+            removeTrigrams(slot, texts.get(slot));
+            texts.set(slot, text);
+            addTrigrams(slot, text);
+            return;
+        }
+
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+            entries.set(slot, entry);
+            texts.set(slot, text);
+        } else {
+            slot = entries.size();
+            entries.add(entry);
+            texts.add(text);
+        }
+        slotById.put(entry.getId(), slot);
+        addTrigrams(slot, text);
+    }
+
+    /**
+     * Removes an entry from the index.
+     */
+    public void remove(PasswordEntry entry) {
+        if (entry.getId() == null) return;
+        Integer slot = slotById.remove(entry.getId());
+        if (slot == null) return;
+        removeTrigrams(slot, texts.get(slot));
+        entries.set(slot, null);
+        texts.set(slot, null);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    public void clear() {
+        postings.clear();
+        slotById.clear();
+        entries.clear();
+        texts.clear();
+        freeCount = 0;
+    }
+
+    public int size() {
+        return slotById.size();
+    }
+
+    /**
+     * Finds the entries whose account, username or URL contains {@code query}, ignoring case.
+     * @return The matches, in no particular order. Empty for a blank query.
+     */
+    public List<PasswordEntry> search(String query) {
+        String needle = query.trim().toLowerCase(Locale.ROOT);
+        List<PasswordEntry> result = new ArrayList<>();
+        if (needle.isEmpty()) return result;
+
+        if (needle.length() < 3) {
+            for (int slot = 0; slot < texts.size(); slot++) {
+                String text = texts.get(slot);
+                if (text != null && text.contains(needle)) {
+                    result.add(entries.get(slot));
+                }
+            }
+            return result;
+        }
+
+        int count = needle.length() - 2;
+        Postings[] lists = new Postings[count];
+        for (int i = 0; i < count; i++) {
+            Postings list = postings.get(trigram(needle, i));
+            if (list == null) return result;
+            lists[i] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        int[] candidates = Arrays.copyOf(lists[0].slots, lists[0].size);
+        int candidateCount = candidates.length;
+        for (int i = 1; i < lists.length && candidateCount > 0; i++) {
+            candidateCount = intersect(candidates, candidateCount, lists[i]);
+        }
+
+        // Sharing all trigrams does not guarantee the trigrams are adjacent
+        for (int i = 0; i < candidateCount; i++) {
+            int slot = candidates[i];
+            if (texts.get(slot).contains(needle)) {
+                result.add(entries.get(slot));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Captures the indexed entries and their text, so they can be matched off the UI thread while
+     * the index keeps changing.
+     */
+    public Snapshot snapshot() {
+        PasswordEntry[] snapshotEntries = new PasswordEntry[slotById.size()];
+        String[] snapshotTexts = new String[snapshotEntries.length];
+        int n = 0;
+        for (int slot = 0; slot < texts.size(); slot++) {
+            if (texts.get(slot) == null) continue;
+            snapshotEntries[n] = entries.get(slot);
+            snapshotTexts[n] = texts.get(slot);
+            n++;
+        }
+        return new Snapshot(snapshotEntries, snapshotTexts);
+    }
+
+    /**
+     * An immutable copy of the index's entries and their lowercased text. Safe to use from any thread.
+     */
+    public static final class Snapshot {
+
+        // Ranks the account above the username and the username above the URL on equal matches
+        private static final int[] FIELD_BONUS = {4, 2, 0};
+        private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+        private final PasswordEntry[] entries;
+        private final String[] texts;
+
+        private Snapshot(PasswordEntry[] entries, String[] texts) {
+            this.entries = entries;
+            this.texts = texts;
+        }
+
+        public int size() {
+            return entries.length;
+        }
+
+        /**
+         * @return Up to {@code limit} entries in index order, for an empty query.
+         */
+        public PasswordEntry[] firstEntries(int limit) {
+            return Arrays.copyOf(entries, Math.min(limit, entries.length));
+        }
+
+        /**
+         * Fuzzy-matches {@code query} against each entry's account, username and URL separately and
+         * ranks the matching entries, best first. Ties go to the shorter text, then to index order.
+         *
+         * @param previous The result of an earlier search on this snapshot, or null. If the new
+         *                 query extends the previous one, only the previous matches are rescanned,
+         *                 since adding characters can only remove matches.
+         * @param cancelled Polled while scanning; once it returns true the search is abandoned.
+         * @throws CancellationException if {@code cancelled} reported true.
+         */
+        public FuzzyResult fuzzySearch(String query, int limit, FuzzyResult previous, BooleanSupplier cancelled) {
+            String needle = query.trim().toLowerCase(Locale.ROOT);
+            int[] candidates = null;
+            int candidateCount = texts.length;
+            if (previous != null && previous.snapshot == this && needle.startsWith(previous.needle)) {
+                candidates = previous.matches;
+                candidateCount = candidates.length;
+            }
+
+            int[] matches = new int[Math.min(candidateCount, 1024)];
+            int matchCount = 0;
+            // Head of the queue is the worst match kept so far
+            PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, Match::compareTo);
+            for (int c = 0; c < candidateCount; c++) {
+                if (c % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) {
+                    throw new CancellationException();
+                }
+                int i = candidates == null ? c : candidates[c];
+                int score = score(needle, texts[i]);
+                if (score == FuzzyMatcher.NO_MATCH) continue;
+                if (matchCount == matches.length) {
+                    matches = Arrays.copyOf(matches, Math.min(candidateCount, matchCount * 2));
+                }
+                matches[matchCount++] = i;
+                Match match = new Match(i, score, texts[i].length());
+                if (best.size() < limit) {
+                    best.add(match);
+                } else if (match.compareTo(best.peek()) > 0) {
+                    best.poll();
+                    best.add(match);
+                }
+            }
+
+            Match[] ranked = best.toArray(new Match[0]);
+            Arrays.sort(ranked, (a, b) -> b.compareTo(a));
+            List<PasswordEntry> top = new ArrayList<>(ranked.length);
+            for (Match match : ranked) {
+                top.add(entries[match.index]);
+            }
+            return new FuzzyResult(this, needle, Arrays.copyOf(matches, matchCount), top);
+        }
+
+        private static int score(String needle, String text) {
+            int best = FuzzyMatcher.NO_MATCH;
+            int from = 0;
+            for (int field = 0; field < FIELD_BONUS.length && from <= text.length(); field++) {
+                int to = text.indexOf(FIELD_SEPARATOR, from);
+                if (to < 0) to = text.length();
+                int score = FuzzyMatcher.score(needle, text, from, to);
+                if (score != FuzzyMatcher.NO_MATCH) {
+                    best = Math.max(best, score + FIELD_BONUS[field]);
+                }
+                from = to + 1;
+            }
+            return best;
+        }
+
+        private record Match(int index, int score, int length) implements Comparable<Match> {
+            @Override
+            public int compareTo(Match other) {
+                if (score != other.score) return Integer.compare(score, other.score);
+                if (length != other.length) return Integer.compare(other.length, length);
+                return Integer.compare(other.index, index);
+            }
+        }
+    }
+
+    /**
+     * The outcome of {@link Snapshot#fuzzySearch}: the best entries, plus every match so that a
+     * longer query can narrow this one down instead of scanning the whole snapshot again.
+     */
+    public static final class FuzzyResult {
+        private final Snapshot snapshot;
+        private final String needle;
+        private final int[] matches;
+        private final List<PasswordEntry> top;
+
+        private FuzzyResult(Snapshot snapshot, String needle, int[] matches, List<PasswordEntry> top) {
+            this.snapshot = snapshot;
+            this.needle = needle;
+            this.matches = matches;
+            this.top = top;
+        }
+
+        /**
+         * @return The best matches, best first.
+         */
+        public List<PasswordEntry> getTop() {
+            return top;
+        }
+
+        public int getMatchCount() {
+            return matches.length;
+        }
+    }
+
+    /**
+     * Keeps the slots of {@code candidates} that are also in {@code list}, in place.
+     * @return The number of slots kept.
+     */
+    private static int intersect(int[] candidates, int count, Postings list) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < list.size; i++) {
+            int slot = candidates[i];
+            // Gallop: the candidates are usually far fewer than the slots in a common trigram's list
+            int step = 1;
+            int hi = j;
+            while (hi < list.size && list.slots[hi] < slot) {
+                j = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            int pos = Arrays.binarySearch(list.slots, j, Math.min(hi + 1, list.size), slot);
+            if (pos >= 0) {
+                candidates[kept++] = slot;
+                j = pos + 1;
+            } else {
+                j = -pos - 1;
+            }
+        }
+        return kept;
+    }
+
+    private void addTrigrams(int slot, String text) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            if (isSpanningFields(text, i)) continue;
+            postings.getOrCreate(trigram(text, i)).add(slot);
+        }
+    }
+
+    private void removeTrigrams(int slot, String text) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            if (isSpanningFields(text, i)) continue;
+            long key = trigram(text, i);
+            Postings list = postings.get(key);
+            if (list != null && list.remove(slot) && list.size == 0) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static boolean isSpanningFields(String text, int i) {
+        return text.charAt(i) == FIELD_SEPARATOR
+                || text.charAt(i + 1) == FIELD_SEPARATOR
+                || text.charAt(i + 2) == FIELD_SEPARATOR;
+    }
+
+    private static long trigram(String text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+
+    private static String indexText(PasswordEntry entry) {
+        StringBuilder sb = new StringBuilder();
+        append(sb, entry.getAccount());
+        sb.append(FIELD_SEPARATOR);
+        append(sb, entry.getUsername());
+        sb.append(FIELD_SEPARATOR);
+        append(sb, entry.getUrl());
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static void append(StringBuilder sb, String field) {
+        if (field != null) sb.append(field);
+    }
+
+    /**
+     * Open-addressing map from a packed trigram to its postings, so neither keys nor lookups box.
+     * Uses linear probing with backward-shift deletion, so no tombstones accumulate.
+     */
+    private static final class TrigramTable {
+        private long[] keys = new long[1024];
+        private Postings[] values = new Postings[1024];
+        private int size = 0;
+
+        Postings get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            return null;
+        }
+
+        Postings getOrCreate(long key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            for (; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            Postings created = new Postings();
+            keys[i] = key;
+            values[i] = created;
+            // Keep the load factor at or below one half
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+            return created;
+        }
+
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (values[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == null) return;
+            values[i] = null;
+            size--;
+            // Move later entries of the probe run back into the gap
+            for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+                int home = hash(keys[j]) & mask;
+                boolean movable = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+                if (movable) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    values[j] = null;
+                    i = j;
+                }
+            }
+        }
+
+        void clear() {
+            keys = new long[1024];
+            values = new Postings[1024];
+            size = 0;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Postings[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Postings[oldValues.length * 2];
+            int mask = keys.length - 1;
+            for (int k = 0; k < oldKeys.length; k++) {
+                if (oldValues[k] == null) continue;
+                int i = hash(oldKeys[k]) & mask;
+                while (values[i] != null) i = (i + 1) & mask;
+                keys[i] = oldKeys[k];
+                values[i] = oldValues[k];
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * A sorted set of slots backed by a growable int array. Adding the same slot twice is a no-op,
+     * so a trigram occurring several times in one entry is posted once.
+     */
+    private static final class Postings {
+        int[] slots = new int[4];
+        int size = 0;
+
+        void add(int slot) {
+            // Bulk builds append in slot order, so check the tail first
+            if (size > 0 && slots[size - 1] == slot) return;
+            int pos = size > 0 && slots[size - 1] < slot ? size : Arrays.binarySearch(slots, 0, size, slot);
+            if (pos < 0) {
+                pos = -pos - 1;
+            } else if (pos < size) {
+                return;
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, pos, slots, pos + 1, size - pos);
+            slots[pos] = slot;
+            size++;
+        }
+
+        boolean remove(int slot) {
+            int pos = Arrays.binarySearch(slots, 0, size, slot);
+            if (pos < 0) return false;
+            System.arraycopy(slots, pos + 1, slots, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+}
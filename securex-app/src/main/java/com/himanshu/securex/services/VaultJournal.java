@@ -0,0 +1,159 @@
+package com.himanshu.securex.services;
+
+import com.google.gson.Gson;
+import com.himanshu.securex.model.PasswordEntry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Append-only log of vault changes that sits on top of the base snapshot (vault.dat).
+ *
+ * Every add/update/delete is written as a single, individually encrypted record on its
+ * own line, so the cost of persisting an edit depends on the size of the change and not
+ * on the size of the vault. The log is folded back into the base snapshot by
+ * {@link StorageService#compact()}.
+ */
+class VaultJournal {
+
+    private static final String OP_PUT = "PUT";
+    private static final String OP_DELETE = "DELETE";
+
+    private final Path journalFile;
+    private final CryptoService cryptoService;
+    private final Gson gson;
+
+    private int recordCount;
+
+    VaultJournal(Path journalFile, CryptoService cryptoService, Gson gson) {
+        this.journalFile = journalFile;
+        this.cryptoService = cryptoService;
+        this.gson = gson;
+    }
+
+    /**
+     * A single journal record. Exactly one of {@code entry} (for PUT) or {@code id} (for DELETE) is set.
+     */
+    private static class Record {
+        String op;
+        String id;
+        PasswordEntry entry;
+    }
+
+    /**
+     * Appends one record per upserted entry and per deleted id in a single write, and syncs
+     * it to disk before returning so an acknowledged edit survives a crash.
+     */
+    void append(Collection<PasswordEntry> upserts, Collection<String> deletedIds) throws Exception {
+        StringBuilder lines = new StringBuilder();
+        for (PasswordEntry entry : upserts) {
+            Record record = new Record();
+            record.op = OP_PUT;
+            record.entry = entry;
+            lines.append(cryptoService.encrypt(gson.toJson(record))).append(System.lineSeparator());
+        }
+        for (String id : deletedIds) {
+            Record record = new Record();
+            record.op = OP_DELETE;
+            record.id = id;
+            lines.append(cryptoService.encrypt(gson.toJson(record))).append(System.lineSeparator());
+        }
+        if (lines.isEmpty()) return;
+
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(lines.toString());
+        try (FileChannel channel = FileChannel.open(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+        recordCount += upserts.size() + deletedIds.size();
+    }
+
+    /**
+     * Replays the journal on top of the given base entries, keyed by entry id in vault order.
+     * A record that cannot be decrypted, or a last line without its line break (a torn write
+     * after a crash), stops the replay; everything before it is kept and the file is cut back
+     * to the end of the last good record so the next append starts on a clean line.
+     */
+    void replay(Map<String, PasswordEntry> entriesById) throws IOException {
+        recordCount = 0;
+        if (!Files.exists(journalFile)) return;
+
+        byte[] data = Files.readAllBytes(journalFile);
+        int goodEnd = 0;
+        int lineStart = 0;
+        while (lineStart < data.length) {
+            int newline = indexOf(data, (byte) '\n', lineStart);
+            if (newline < 0) break;
+            String line = new String(data, lineStart, newline - lineStart, StandardCharsets.UTF_8);
+            lineStart = newline + 1;
+            if (!line.isBlank()) {
+                Record record;
+                try {
+                    record = gson.fromJson(cryptoService.decrypt(line.trim()), Record.class);
+                } catch (Exception e) {
+                    break;
+                }
+                apply(record, entriesById);
+                recordCount++;
+            }
+            goodEnd = lineStart;
+        }
+
+        if (goodEnd < data.length) {
+            System.err.println("Warning: Discarding unreadable journal tail after " + recordCount + " records.");
+            try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                channel.truncate(goodEnd);
+                channel.force(false);
+            }
+        }
+    }
+
+    private static int indexOf(byte[] data, byte value, int from) {
+        for (int i = from; i < data.length; i++) {
+            if (data[i] == value) return i;
+        }
+        return -1;
+    }
+
+    private void apply(Record record, Map<String, PasswordEntry> entriesById) {
+        if (record == null) return;
+        if (OP_PUT.equals(record.op) && record.entry != null) {
+            record.entry.ensureId();
+            PasswordEntry previous = entriesById.put(record.entry.getId(), record.entry);
+            if (previous != null) {
+                previous.clearPassword();
+            }
+        } else if (OP_DELETE.equals(record.op) && record.id != null) {
+            PasswordEntry removed = entriesById.remove(record.id);
+            if (removed != null) {
+                removed.clearPassword();
+            }
+        }
+    }
+
+    /**
+     * @return the number of records written since the journal was last cleared.
+     */
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    boolean isEmpty() {
+        return !Files.exists(journalFile);
+    }
+
+    void clear() throws IOException {
+        Files.deleteIfExists(journalFile);
+        recordCount = 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.himanshu.securex.services;
+
+import java.time.Instant;
+
+/**
+ * Plaintext metadata from a vault file header. It can be read without the vault key and is
+ * authenticated together with the ciphertext when the file is decrypted.
+ *
+ * @param formatVersion The container format version.
+ * @param entryCount    The number of entries in the file, or -1 if the format does not record it.
+ * @param createdAt     When the file was written, or null if the format does not record it.
+ * @param contentHash   Hash of the plaintext payload, or null if the format does not record it. It is
+ *                      keyed with the vault key (HMAC-SHA256) from format version 3 on.
+ */
+public record VaultMetadata(int formatVersion, int entryCount, Instant createdAt, byte[] contentHash) {
+}
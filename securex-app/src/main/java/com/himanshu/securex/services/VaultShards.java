@@ -0,0 +1,386 @@
+package com.himanshu.securex.services;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.himanshu.securex.diagnostics.Metrics;
+import com.himanshu.securex.model.PasswordEntry;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The vault's entries split into independently encrypted shard files, listed by a manifest.
+ *
+ * An entry's shard is picked by a stable hash of its id. Each shard is a {@link VaultFileFormat}
+ * container holding a JSON array of entries, like a whole vault used to be, and is never modified
+ * once written: a changed shard is written to a new file named after the manifest's generation.
+ * The manifest is itself a container, stored as vault.dat, so replacing it switches all shards at
+ * once and its header still carries the vault's total entry count.
+ *
+ * A save skips the shards whose entries are all {@link PasswordEntry#isSavedIn saved} in the current
+ * manifest. It serializes the rest, but only encrypts and writes those whose content hash differs
+ * from the current manifest's, so a compaction after a few edits touches a few files. Loading
+ * decrypts the shards in parallel on the common fork-join pool.
+ *
+ * A backup's manifest lists chunks of the {@link BackupStore} for each shard instead of a file.
+ * Backups written by older versions are copies of vault.dat and share its shard files, so a shard
+ * is only deleted once neither the vault nor any backup lists it ({@link #deleteUnused}).
+ */
+final class VaultShards {
+
+    // About one 64 KB container chunk of entries per shard
+    private static final int TARGET_ENTRIES_PER_SHARD = 256;
+    private static final int MAX_SHARDS = 256;
+
+    private static final Type ENTRY_LIST_TYPE = new TypeToken<ArrayList<PasswordEntry>>() {}.getType();
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final Pattern SHARD_FILE = Pattern.compile("^shard-(\\d+)-(\\d+)\\.dat$");
+
+    private static final Metrics.Counter SHARDS_WRITTEN = Metrics.counter("storage.shards.written");
+    private static final Metrics.Counter SHARDS_REUSED = Metrics.counter("storage.shards.reused");
+
+    /**
+     * The payload of vault.dat: which file holds each shard.
+     */
+    static final class Manifest {
+        int shardCount;
+        long generation;
+        List<Shard> shards = new ArrayList<>();
+
+        int entryCount() {
+            int total = 0;
+            for (Shard shard : shards) {
+                total += shard.entries;
+            }
+            return total;
+        }
+    }
+
+    static final class Shard {
+        int index;
+        // Null in a backup's manifest, which lists chunks instead
+        String file;
+        List<String> chunks;
+        int entries;
+        // Hex keyed hash of the shard's plaintext (CryptoService.contentId), as in its container
+        // header; not kept in backups
+        String hash;
+    }
+
+    private final Path shardsDir;
+    private final BackupStore backupStore;
+    private final Gson gson;
+
+    VaultShards(Path shardsDir, BackupStore backupStore, Gson gson) {
+        this.shardsDir = shardsDir;
+        this.backupStore = backupStore;
+        this.gson = gson;
+    }
+
+    /**
+     * @return The shard of the entry with the given id, for a vault with {@code shardCount} shards.
+     */
+    static int shardOf(String id, int shardCount) {
+        // String.hashCode() is fixed by the language spec, so the placement survives upgrades;
+        // the mixing spreads ids that only differ in their last characters
+        int h = id.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return Math.floorMod(h, shardCount);
+    }
+
+    /**
+     * Picks the number of shards for a vault of {@code entries}. The count only grows, since
+     * changing it moves nearly every entry to a different shard.
+     */
+    static int shardCountFor(int entries, Manifest current) {
+        int count = 1;
+        while (count < MAX_SHARDS && (long) count * TARGET_ENTRIES_PER_SHARD < entries) {
+            count <<= 1;
+        }
+        return current != null ? Math.max(count, current.shardCount) : count;
+    }
+
+    /**
+     * Reads the entries of every shard in the manifest, decrypting the shards in parallel.
+     * @throws NoSuchFileException If a shard is missing, e.g. because another process saved the
+     * vault and removed it since the manifest was read.
+     */
+    List<PasswordEntry> read(Manifest manifest, CryptoService crypto) throws Exception {
+        List<Callable<List<PasswordEntry>>> tasks = new ArrayList<>();
+        for (Shard shard : manifest.shards) {
+            tasks.add(() -> readShard(open(shard, crypto)));
+        }
+        List<PasswordEntry> entries = new ArrayList<>(manifest.entryCount());
+        for (List<PasswordEntry> shardEntries : invokeAll(tasks)) {
+            entries.addAll(shardEntries);
+        }
+        for (PasswordEntry entry : entries) {
+            entry.markSaved(manifest.generation);
+        }
+        return entries;
+    }
+
+    /**
+     * @return The plaintext of a shard, from its file or from the backup store.
+     */
+    InputStream open(Shard shard, CryptoService crypto) throws IOException {
+        return shard.chunks != null
+                ? backupStore.open(shard.chunks, crypto)
+                : VaultFileFormat.openReader(resolve(shard), crypto);
+    }
+
+    private List<PasswordEntry> readShard(InputStream plain) throws IOException {
+        try (JsonReader reader = gson.newJsonReader(new SecureUtf8Reader(
+                new BufferedInputStream(plain, STREAM_BUFFER_SIZE)))) {
+            List<PasswordEntry> entries = gson.fromJson(reader, ENTRY_LIST_TYPE);
+            return entries != null ? entries : new ArrayList<>();
+        }
+    }
+
+    /**
+     * @return Whether {@code entries} are exactly the entries of {@code manifest}, unchanged, so
+     * writing them would produce the same vault.
+     */
+    static boolean isSaved(List<PasswordEntry> entries, Manifest manifest) {
+        if (manifest == null || entries.size() != manifest.entryCount()) return false;
+        for (PasswordEntry entry : entries) {
+            if (!entry.isSavedIn(manifest.generation)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the shards that differ from {@code current} and returns the manifest for the result.
+     * Each shard is written to a temporary file and moved into place, so a shard file is always
+     * complete. Nothing refers to the new files until the caller writes the returned manifest.
+     *
+     * @param current The manifest being replaced, or null to write every shard.
+     */
+    Manifest write(List<PasswordEntry> entries, Manifest current, CryptoService crypto) throws Exception {
+        Manifest next = new Manifest();
+        next.shardCount = shardCountFor(entries.size(), current);
+        next.generation = Math.max(current != null ? current.generation : 0, highestGeneration()) + 1;
+
+        List<List<PasswordEntry>> byShard = new ArrayList<>(next.shardCount);
+        for (int i = 0; i < next.shardCount; i++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (PasswordEntry entry : entries) {
+            entry.ensureId();
+            byShard.get(shardOf(entry.getId(), next.shardCount)).add(entry);
+        }
+        boolean comparable = current != null && current.shardCount == next.shardCount;
+
+        Files.createDirectories(shardsDir);
+        List<Callable<Shard>> tasks = new ArrayList<>();
+        for (int i = 0; i < next.shardCount; i++) {
+            int index = i;
+            Shard previous = comparable ? findShard(current, index) : null;
+            List<PasswordEntry> shardEntries = byShard.get(index);
+            if (previous != null && isUnchanged(shardEntries, previous, current.generation)) {
+                SHARDS_REUSED.add(1);
+                tasks.add(() -> previous);
+            } else {
+                tasks.add(() -> writeShard(index, shardEntries, previous, next.generation, crypto));
+            }
+        }
+        next.shards = invokeAll(tasks);
+        return next;
+    }
+
+    /**
+     * @return Whether the shard's entries are the ones {@code previous} holds, none of them changed.
+     * The generation check is what proves it: an entry is only marked saved in {@code generation}
+     * when it was loaded from or written to that manifest and has not changed since, and with the
+     * same shard count its id puts it in the same shard. So every entry is one of {@code previous}'s,
+     * and as ids are unique, an equal count means none of them was removed.
+     */
+    private boolean isUnchanged(List<PasswordEntry> entries, Shard previous, long generation) throws IOException {
+        if (entries.size() != previous.entries) return false;
+        for (PasswordEntry entry : entries) {
+            if (!entry.isSavedIn(generation)) return false;
+        }
+        return Files.exists(resolve(previous));
+    }
+
+    private static Shard findShard(Manifest manifest, int index) {
+        for (Shard shard : manifest.shards) {
+            if (shard.index == index) return shard;
+        }
+        return null;
+    }
+
+    /**
+     * Serializes one shard and writes it unless {@code previous} already holds the same content.
+     */
+    private Shard writeShard(int index, List<PasswordEntry> entries, Shard previous, long generation,
+                             CryptoService crypto) throws Exception {
+        PlainBuffer plain = new PlainBuffer();
+        try {
+            try (JsonWriter writer = gson.newJsonWriter(new SecureUtf8Writer(plain))) {
+                gson.toJson(entries, ENTRY_LIST_TYPE, writer);
+            }
+            String hash = HexFormat.of().formatHex(plain.contentId(crypto));
+            if (previous != null && previous.hash.equals(hash) && Files.exists(resolve(previous))) {
+                SHARDS_REUSED.add(1);
+                return previous;
+            }
+
+            Shard shard = new Shard();
+            shard.index = index;
+            shard.file = "shard-" + index + "-" + generation + ".dat";
+            shard.entries = entries.size();
+            shard.hash = hash;
+            Path target = resolve(shard);
+            Path temp = target.resolveSibling(shard.file + ".tmp");
+            try {
+                FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                try (OutputStream out = VaultFileFormat.openWriter(channel, crypto, entries.size())) {
+                    out.write(plain.bytes, 0, plain.length);
+                } finally {
+                    channel.close();
+                }
+                StorageService.moveReplacing(temp, target);
+            } catch (Exception e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            SHARDS_WRITTEN.add(1);
+            return shard;
+        } finally {
+            plain.wipe();
+        }
+    }
+
+    /**
+     * Deletes the shard files that none of the given manifests lists.
+     */
+    void deleteUnused(Collection<Manifest> manifests) throws IOException {
+        if (!Files.isDirectory(shardsDir)) return;
+        Set<String> live = new HashSet<>();
+        for (Manifest manifest : manifests) {
+            for (Shard shard : manifest.shards) {
+                if (shard.file != null) live.add(shard.file);
+            }
+        }
+        try (Stream<Path> files = Files.list(shardsDir)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (SHARD_FILE.matcher(name).matches() && !live.contains(name)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The highest generation of any shard file on disk, so new files never reuse the name
+     * of one that a manifest this key cannot read may still list.
+     */
+    private long highestGeneration() throws IOException {
+        if (!Files.isDirectory(shardsDir)) return 0;
+        long highest = 0;
+        try (Stream<Path> files = Files.list(shardsDir)) {
+            for (Path file : files.toList()) {
+                Matcher matcher = SHARD_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    highest = Math.max(highest, Long.parseLong(matcher.group(2)));
+                }
+            }
+        }
+        return highest;
+    }
+
+    private Path resolve(Shard shard) throws IOException {
+        Path file = shardsDir.resolve(shard.file).normalize();
+        // The name comes from an authenticated manifest, but is never allowed outside the shards directory
+        if (!file.getParent().equals(shardsDir.normalize())) {
+            throw new IOException("Invalid shard file name in the vault manifest.");
+        }
+        return file;
+    }
+
+    /**
+     * Runs the tasks on the common fork-join pool and returns their results in order, rethrowing
+     * the first failure.
+     */
+    private static <T> List<T> invokeAll(List<Callable<T>> tasks) throws Exception {
+        if (tasks.size() == 1) {
+            return List.of(tasks.get(0).call());
+        }
+        List<T> results = new ArrayList<>(tasks.size());
+        for (Future<T> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception cause) throw cause;
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * A growable byte buffer that wipes every array it outgrows, for one shard's plaintext.
+     */
+    private static final class PlainBuffer extends OutputStream {
+        private byte[] bytes = new byte[8192];
+        private int length = 0;
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(len);
+            System.arraycopy(b, off, bytes, length, len);
+            length += len;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra <= bytes.length) return;
+            byte[] grown = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            Arrays.fill(bytes, (byte) 0);
+            bytes = grown;
+        }
+
+        byte[] contentId(CryptoService crypto) {
+            return crypto.contentId(bytes, 0, length);
+        }
+
+        void wipe() {
+            Arrays.fill(bytes, (byte) 0);
+            length = 0;
+        }
+    }
+}
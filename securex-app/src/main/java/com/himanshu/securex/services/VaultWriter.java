@@ -0,0 +1,217 @@
+package com.himanshu.securex.services;
+
+import com.himanshu.securex.model.PasswordEntry;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Persists vault edits on a dedicated writer thread so the JavaFX thread never waits on disk I/O.
+ *
+ * Edits are captured as immutable snapshots on the calling thread and queued per entry id, so a
+ * burst of edits to the same entry within the debounce window collapses into a single journal write.
+ * Completion and failure are reported back on the JavaFX thread via {@link Platform#runLater}.
+ * A batch that fails stays queued and is retried with a growing delay until it is written.
+ * {@link #flush()} is a barrier that blocks until every queued edit has been written, and throws
+ * if they could not be.
+ */
+public class VaultWriter {
+
+    // Writers that may still hold queued edits, flushed on application exit
+    private static final Set<VaultWriter> OPEN_WRITERS = ConcurrentHashMap.newKeySet();
+
+    private static final long RETRY_DELAY_MILLIS = 1_000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+
+    private final StorageService storageService;
+    private final long debounceMillis;
+    private final Runnable onSaved;
+    private final Consumer<Exception> onFailure;
+    private final ScheduledExecutorService executor;
+
+    // Pending edits keyed by entry id; a null value marks a deletion
+    private final Map<String, PasswordEntry> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+    // Failed writes since the last successful one, guarded by pending
+    private int failures;
+
+    /**
+     * @param storageService The storage the edits are written to.
+     * @param debounceMillis How long to wait for further edits before writing a batch.
+     * @param onSaved        Called on the JavaFX thread after a batch has been written.
+     * @param onFailure      Called on the JavaFX thread when a background write fails after the
+     *                       last one succeeded. The write is retried, but not reported again until
+     *                       one has succeeded.
+     */
+    public VaultWriter(StorageService storageService, long debounceMillis, Runnable onSaved, Consumer<Exception> onFailure) {
+        this.storageService = storageService;
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.onSaved = onSaved;
+        this.onFailure = onFailure;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "securex-vault-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        OPEN_WRITERS.add(this);
+    }
+
+    /**
+     * Queues an added or updated entry. The entry is sealed and snapshotted immediately,
+     * so later modifications do not affect the queued write.
+     */
+    public void put(PasswordEntry entry) {
+        storageService.attach(entry);
+        PasswordEntry snapshot = entry.copy();
+        synchronized (pending) {
+            pending.remove(snapshot.getId());
+            pending.put(snapshot.getId(), snapshot);
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Queues the removal of an entry.
+     */
+    public void delete(PasswordEntry entry) {
+        if (entry.getId() == null) return;
+        synchronized (pending) {
+            pending.remove(entry.getId());
+            pending.put(entry.getId(), null);
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (scheduledFlush == null || scheduledFlush.isDone()) {
+            scheduleWrite(debounceMillis);
+        }
+    }
+
+    // Call holding the pending lock
+    private void scheduleWrite(long delayMillis) {
+        if (executor.isShutdown()) return;
+        scheduledFlush = executor.schedule(() -> {
+            writePending(true);
+            return null;
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param report Whether to report a failure to {@code onFailure}; {@link #flush()} throws it
+     *               to its caller instead.
+     */
+    private void writePending(boolean report) throws Exception {
+        Map<String, PasswordEntry> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) return;
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+
+        List<PasswordEntry> upserts = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+        for (Map.Entry<String, PasswordEntry> op : batch.entrySet()) {
+            if (op.getValue() != null) {
+                upserts.add(op.getValue());
+            } else {
+                deletedIds.add(op.getKey());
+            }
+        }
+
+        try {
+            storageService.apply(upserts, deletedIds);
+        } catch (Exception e) {
+            boolean firstFailure;
+            synchronized (pending) {
+                // Put the failed edits back unless they have been superseded in the meantime
+                Map<String, PasswordEntry> merged = new LinkedHashMap<>(batch);
+                merged.putAll(pending);
+                pending.clear();
+                pending.putAll(merged);
+
+                firstFailure = failures++ == 0;
+                // 1s, 2s, 4s, ... up to a minute, replacing any write scheduled by a newer edit
+                if (scheduledFlush != null) scheduledFlush.cancel(false);
+                scheduleWrite(Math.min(MAX_RETRY_DELAY_MILLIS, RETRY_DELAY_MILLIS << Math.min(failures - 1, 6)));
+            }
+            if (report && firstFailure && onFailure != null) Platform.runLater(() -> onFailure.accept(e));
+            throw e;
+        }
+        synchronized (pending) {
+            failures = 0;
+        }
+        if (onSaved != null) Platform.runLater(onSaved);
+    }
+
+    /**
+     * Blocks until all queued edits have been written.
+     * @throws Exception Why they could not be written. They stay queued and are retried later.
+     */
+    public void flush() throws Exception {
+        synchronized (pending) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+            }
+        }
+        if (executor.isShutdown()) return;
+        try {
+            executor.submit(() -> {
+                writePending(false);
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * @return The number of entries with edits that have not been written yet.
+     */
+    public int pendingEdits() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Stops the writer thread and the storage's background compactor. Edits that are still queued
+     * are discarded, so {@link #flush()} first to write them or find out that they cannot be.
+     */
+    public void close() {
+        synchronized (pending) {
+            if (scheduledFlush != null) scheduledFlush.cancel(false);
+            executor.shutdown();
+        }
+        storageService.close();
+        OPEN_WRITERS.remove(this);
+    }
+
+    /**
+     * Flushes and closes every writer that is still open. Called when the application exits.
+     */
+    public static void closeAll() {
+        for (VaultWriter writer : List.copyOf(OPEN_WRITERS)) {
+            try {
+                writer.flush();
+            } catch (Exception e) {
+                System.err.println("Warning: " + writer.pendingEdits() + " unsaved vault edits were lost: " + e);
+            }
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.himanshu.securex.util;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A utility class for working out which site a stored URL belongs to.
+ */
+public class DomainUtil {
+
+    // Second-level labels that, under a two-letter country code, are a public suffix themselves
+    // (co.uk, com.au, ...). A small stand-in for the full Public Suffix List.
+    private static final Set<String> COUNTRY_SECOND_LEVELS = Set.of(
+            "ac", "co", "com", "edu", "gov", "ltd", "ne", "net", "or", "org", "plc");
+
+    /**
+     * Extracts the registrable domain from a URL or bare host name, e.g. "google.com" for
+     * "https://accounts.google.com/login" and "bbc.co.uk" for "www.bbc.co.uk".
+     *
+     * @param url The URL as the user typed it, possibly without a scheme. May be null.
+     * @return The lowercase registrable domain, the host itself for IP addresses and single-label
+     * hosts, or an empty string if there is no host.
+     */
+    public static String registrableDomain(String url) {
+        if (url == null) return "";
+        String host = url.trim();
+
+        int scheme = host.indexOf("://");
+        if (scheme >= 0) host = host.substring(scheme + 3);
+        int end = indexOfAny(host, "/?#");
+        if (end >= 0) host = host.substring(0, end);
+        int userInfo = host.lastIndexOf('@');
+        if (userInfo >= 0) host = host.substring(userInfo + 1);
+        if (host.startsWith("[")) {
+            // IPv6 literal
+            int close = host.indexOf(']');
+            return close > 0 ? host.substring(0, close + 1).toLowerCase(Locale.ROOT) : "";
+        }
+        int port = host.indexOf(':');
+        if (port >= 0) host = host.substring(0, port);
+        host = host.toLowerCase(Locale.ROOT);
+        while (host.endsWith(".")) host = host.substring(0, host.length() - 1);
+        if (host.isEmpty() || isIpv4(host)) return host;
+
+        int last = host.lastIndexOf('.');
+        if (last < 0) return host;
+        int secondLast = host.lastIndexOf('.', last - 1);
+        if (secondLast < 0) return host;
+
+        String topLevel = host.substring(last + 1);
+        String secondLevel = host.substring(secondLast + 1, last);
+        if (topLevel.length() == 2 && COUNTRY_SECOND_LEVELS.contains(secondLevel)) {
+            int thirdLast = host.lastIndexOf('.', secondLast - 1);
+            return host.substring(thirdLast + 1);
+        }
+        return host.substring(secondLast + 1);
+    }
+
+    private static int indexOfAny(String s, String chars) {
+        for (int i = 0; i < s.length(); i++) {
+            if (chars.indexOf(s.charAt(i)) >= 0) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isIpv4(String host) {
+        for (int i = 0; i < host.length(); i++) {
+            char c = host.charAt(i);
+            if (c != '.' && (c < '0' || c > '9')) return false;
+        }
+        return true;
+    }
+}
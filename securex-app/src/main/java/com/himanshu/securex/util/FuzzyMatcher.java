@@ -0,0 +1,83 @@
+package com.himanshu.securex.util;
+
+/**
+ * A utility class for fuzzy matching typed characters against a piece of text.
+ *
+ * The query matches if its characters appear in the text in order, not necessarily next to each
+ * other. Matches are scored so that tighter ones rank higher: characters that follow each other,
+ * characters at the start of a word, and a match at the very beginning earn bonuses, while gaps
+ * between matched characters cost points. The matched span is narrowed with a backward pass first,
+ * so "gh" in "github" is scored on "gh" rather than on "g...h" starting from an earlier 'g'.
+ *
+ * Both the query and the text are expected to be lowercase already; no allocation happens per call.
+ */
+public class FuzzyMatcher {
+
+    public static final int NO_MATCH = Integer.MIN_VALUE;
+
+    private static final int SCORE_MATCH = 16;
+    private static final int BONUS_CONSECUTIVE = 8;
+    private static final int BONUS_WORD_START = 8;
+    private static final int BONUS_FIRST_CHAR = 8;
+    private static final int PENALTY_GAP_START = 3;
+    private static final int PENALTY_GAP_EXTENSION = 1;
+
+    /**
+     * Scores {@code query} against {@code text.substring(from, to)}.
+     *
+     * @return The score, higher is better, or {@link #NO_MATCH} if the query is not a subsequence.
+     */
+    public static int score(String query, String text, int from, int to) {
+        int queryLength = query.length();
+        if (queryLength == 0) return 0;
+        if (to - from < queryLength) return NO_MATCH;
+
+        // Forward: find the earliest position where the whole query has been seen
+        int q = 0;
+        int end = -1;
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == query.charAt(q) && ++q == queryLength) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) return NO_MATCH;
+
+        // Backward: from that end, find the latest start that still contains the query
+        q = queryLength - 1;
+        int start = end;
+        for (int i = end; i >= from; i--) {
+            if (text.charAt(i) == query.charAt(q) && --q < 0) {
+                start = i;
+                break;
+            }
+        }
+
+        int score = 0;
+        q = 0;
+        boolean previousMatched = false;
+        boolean inGap = false;
+        for (int i = start; i <= end && q < queryLength; i++) {
+            if (text.charAt(i) == query.charAt(q)) {
+                score += SCORE_MATCH;
+                if (previousMatched) score += BONUS_CONSECUTIVE;
+                if (isWordStart(text, i, from)) score += BONUS_WORD_START;
+                if (i == from) score += BONUS_FIRST_CHAR;
+                q++;
+                previousMatched = true;
+                inGap = false;
+            } else {
+                score -= inGap ? PENALTY_GAP_EXTENSION : PENALTY_GAP_START;
+                previousMatched = false;
+                inGap = true;
+            }
+        }
+        return score;
+    }
+
+    private static boolean isWordStart(String text, int i, int from) {
+        if (i == from) return true;
+        char previous = text.charAt(i - 1);
+        return !Character.isLetterOrDigit(previous) && Character.isLetterOrDigit(text.charAt(i));
+    }
+}
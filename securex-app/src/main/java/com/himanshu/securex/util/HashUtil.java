@@ -0,0 +1,199 @@
+package com.himanshu.securex.util;
+
+import com.himanshu.securex.diagnostics.Metrics;
+import com.himanshu.securex.diagnostics.VaultEvents;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.nio.charset.StandardCharsets;
+import java.security.spec.KeySpec;
+import java.util.Base64;
+import java.util.Arrays;
+
+/**
+ * Utility class for password hashing and verification using PBKDF2, and for expanding a
+ * derived key into independent subkeys (HKDF).
+ */
+public class HashUtil {
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    /**
+     * The least PBKDF2 iteration count ever used, and the fixed count of older vaults and hashes.
+     */
+    public static final int MIN_ITERATIONS = 65536;
+    private static final int MAX_ITERATIONS = 50_000_000;
+    // Iterations per calibration probe; large enough to time reliably, small enough to be quick
+    private static final int PROBE_ITERATIONS = 32768;
+    private static final int MIN_PROBE_RUNS = 3;
+    private static final int MAX_PROBE_RUNS = 20;
+    // Probe for about this long. Login derives the key in a freshly started JVM, so a short,
+    // mostly cold measurement matches the wait users actually see better than a fully warm one.
+    private static final long PROBE_BUDGET_NANOS = 400_000_000L;
+    private static final int KEY_LENGTH = 256;
+    private static final int SALT_SIZE = 16;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Metrics.Timer KDF_TIME = Metrics.timer("kdf.derive");
+
+    public static byte[] generateSalt() {
+        byte[] salt = new byte[SALT_SIZE];
+        RANDOM.nextBytes(salt);
+        return salt;
+    }
+
+    /**
+     * Hashes a password using PBKDF2. The salt is generated randomly and stored with the hash.
+     *
+     * @param password The plaintext password to hash.
+     * @return A Base64 encoded string containing the salt and the hash.
+     */
+    public static String hashPassword(char[] password) {
+        try {
+            byte[] salt = generateSalt();
+            KeySpec spec = new PBEKeySpec(password, salt, MIN_ITERATIONS, KEY_LENGTH);
+            SecretKeyFactory factory = SecretKeyFactory.getInstance(ALGORITHM);
+            byte[] hashedPassword = factory.generateSecret(spec).getEncoded();
+
+            byte[] hashWithSalt = new byte[SALT_SIZE + hashedPassword.length];
+            System.arraycopy(salt, 0, hashWithSalt, 0, SALT_SIZE);
+            System.arraycopy(hashedPassword, 0, hashWithSalt, SALT_SIZE, hashedPassword.length);
+
+            return Base64.getEncoder().encodeToString(hashWithSalt);
+
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new RuntimeException("Failed to hash password", e);
+        }
+    }
+
+    public static boolean verifyPassword(char[] password, String storedHashBase64) {
+        try {
+            byte[] decoded = Base64.getDecoder().decode(storedHashBase64);
+            byte[] salt = new byte[SALT_SIZE];
+            System.arraycopy(decoded, 0, salt, 0, SALT_SIZE);
+            byte[] storedHash = new byte[decoded.length - SALT_SIZE];
+            System.arraycopy(decoded, SALT_SIZE, storedHash, 0, storedHash.length);
+
+            byte[] computedHash = deriveKey(password, salt, MIN_ITERATIONS);
+            return Arrays.equals(storedHash, computedHash);
+        } finally {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    /**
+     * Runs PBKDF2 once over the password. The result is meant to be split into subkeys with
+     * {@link #expand}, so a single derivation serves both verification and encryption.
+     *
+     * @param password   The password. It is not modified.
+     * @param salt       The salt.
+     * @param iterations The PBKDF2 iteration count.
+     * @return The 256-bit derived key. The caller should wipe it after use.
+     */
+    public static byte[] deriveKey(char[] password, byte[] salt, int iterations) {
+        VaultEvents.KeyDerivation event = VaultEvents.beginKeyDerivation();
+        long start = System.nanoTime();
+        try {
+            return pbkdf2(password, salt, iterations);
+        } finally {
+            KDF_TIME.recordSince(start);
+            if (event != null) {
+                event.iterations = iterations;
+                event.commit();
+            }
+        }
+    }
+
+    // Not recorded as a key derivation, so calibration probes do not skew the unlock timings
+    private static byte[] pbkdf2(char[] password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, KEY_LENGTH);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new RuntimeException("Failed to derive key", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * An iteration count picked by {@link #calibrate}.
+     * @param iterations       The PBKDF2 iteration count.
+     * @param derivationMillis The estimated time of one derivation on this machine.
+     */
+    public record Calibration(int iterations, long derivationMillis) {
+    }
+
+    /**
+     * Measures PBKDF2 throughput on this machine and picks the iteration count whose derivation
+     * takes about {@code targetMillis}. The count never drops below {@link #MIN_ITERATIONS}.
+     */
+    public static Calibration calibrate(long targetMillis) {
+        char[] probePassword = "calibration".toCharArray();
+        byte[] probeSalt = generateSalt();
+        long bestNanos = Long.MAX_VALUE;
+        long began = System.nanoTime();
+        // The fastest run is the least disturbed one
+        for (int i = 0; i < MAX_PROBE_RUNS; i++) {
+            if (i >= MIN_PROBE_RUNS && System.nanoTime() - began >= PROBE_BUDGET_NANOS) break;
+            long start = System.nanoTime();
+            Arrays.fill(pbkdf2(probePassword, probeSalt, PROBE_ITERATIONS), (byte) 0);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        double iterationsPerMilli = PROBE_ITERATIONS * 1_000_000.0 / Math.max(1, bestNanos);
+        long wanted = (long) (iterationsPerMilli * targetMillis);
+        // Round down to a multiple of 1024 to keep stored values readable
+        int iterations = (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, wanted & ~1023L));
+        return new Calibration(iterations, Math.round(iterations / iterationsPerMilli));
+    }
+
+    /**
+     * HKDF-Expand (RFC 5869) with HMAC-SHA256. Different {@code info} labels yield independent
+     * keys from the same input key, none of which reveals the others.
+     *
+     * @param key    A uniformly random key, such as the output of {@link #deriveKey}.
+     * @param info   The label of the subkey.
+     * @param length The subkey length in bytes, at most 255 * 32.
+     * @return The subkey. The caller should wipe it after use.
+     */
+    public static byte[] expand(byte[] key, String info, int length) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            byte[] infoBytes = info.getBytes(StandardCharsets.UTF_8);
+            byte[] result = new byte[length];
+            byte[] block = new byte[0];
+            for (int offset = 0, counter = 1; offset < length; counter++) {
+                mac.update(block);
+                mac.update(infoBytes);
+                mac.update((byte) counter);
+                Arrays.fill(block, (byte) 0);
+                block = mac.doFinal();
+                int n = Math.min(block.length, length - offset);
+                System.arraycopy(block, 0, result, offset, n);
+                offset += n;
+            }
+            Arrays.fill(block, (byte) 0);
+            return result;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Failed to expand key", e);
+        }
+    }
+
+    /**
+     * Extracts the salt bytes from a previously-produced Base64 hash string (salt+hash).
+     *
+     * @param storedHashBase64 Base64 string produced by hashPassword
+     * @return salt bytes
+     */
+    public static byte[] extractSaltFromHash(String storedHashBase64) {
+        byte[] decoded = Base64.getDecoder().decode(storedHashBase64);
+        byte[] salt = new byte[SALT_SIZE];
+        System.arraycopy(decoded, 0, salt, 0, SALT_SIZE);
+        return salt;
+    }
+}
\ No newline at end of file
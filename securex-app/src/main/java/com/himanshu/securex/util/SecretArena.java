@@ -0,0 +1,399 @@
+package com.himanshu.securex.util;
+
+import com.sun.jna.Library;
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.BaseTSD;
+import com.sun.jna.platform.win32.Kernel32;
+
+import java.lang.ref.Cleaner;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Native memory for plaintext secrets, outside the Java heap.
+ *
+ * Heap arrays can be copied by the garbage collector and end up in heap dumps, so a wiped
+ * {@code char[]} may still have older copies lying around. Secrets stored here live in native
+ * slabs that the garbage collector never touches. Where the OS permits, the slabs are locked in RAM
+ * ({@code mlock} / {@code VirtualLock}) so they are not swapped out, and on Linux they are excluded
+ * from core dumps ({@code MADV_DONTDUMP}). Locking is best effort: it fails quietly when the
+ * process is over its locked-memory limit.
+ *
+ * Each secret takes a slot from a power-of-two size class within a slab. Closing a secret wipes its
+ * slot before the slot is reused. Secrets that are dropped without being closed are wiped by a
+ * {@link Cleaner} once they become unreachable. {@link #close()} wipes and frees every slab.
+ *
+ * If JNA's native library cannot be loaded, secrets fall back to heap arrays. They are still wiped
+ * on close, but none of the guarantees above apply.
+ */
+public class SecretArena implements AutoCloseable {
+
+    private static final int SLAB_SIZE = 64 * 1024;
+    private static final int MIN_SLOT = 32;
+    private static final int MAX_SLOT = 4096;
+    private static final int SIZE_CLASSES = Integer.numberOfTrailingZeros(MAX_SLOT) - Integer.numberOfTrailingZeros(MIN_SLOT) + 1;
+    // Linux <sys/mman.h>
+    private static final int MADV_DONTDUMP = 16;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static volatile SecretArena defaultArena;
+
+    private interface CLibrary extends Library {
+        int mlock(Pointer addr, NativeLong len);
+        int munlock(Pointer addr, NativeLong len);
+        int madvise(Pointer addr, NativeLong len, int advice);
+        int getpagesize();
+    }
+
+    /**
+     * A native block holding one or more slots.
+     */
+    private static final class Slab {
+        final Memory allocation;
+        final Pointer base;
+        final long size;
+        final boolean locked;
+        long used = 0;
+
+        Slab(Memory allocation, Pointer base, long size, boolean locked) {
+            this.allocation = allocation;
+            this.base = base;
+            this.size = size;
+            this.locked = locked;
+        }
+    }
+
+    /**
+     * Where a secret's bytes live: a slot in a slab, or a heap array when native memory is unavailable.
+     */
+    private record Slot(Slab slab, long offset, int sizeClass, char[] heap) {
+    }
+
+    private final boolean nativeMemory;
+    private final CLibrary libc;
+    private final long pageSize;
+    private final List<Slab> slabs = new ArrayList<>();
+    private final List<Deque<Slot>> freeSlots = new ArrayList<>();
+    // Slab currently being carved into new slots, per size class
+    private final Slab[] currentSlab = new Slab[SIZE_CLASSES];
+    private int lockedSlabs = 0;
+    private int liveSecrets = 0;
+    private boolean closed = false;
+
+    public SecretArena() {
+        CLibrary library = null;
+        boolean available;
+        try {
+            if (!Platform.isWindows()) {
+                library = Native.load(Platform.C_LIBRARY_NAME, CLibrary.class);
+            }
+            available = Native.POINTER_SIZE > 0;
+        } catch (Throwable e) {
+            System.err.println("Warning: Native memory is unavailable; secrets are kept on the heap. " + e.getMessage());
+            available = false;
+        }
+        this.nativeMemory = available;
+        this.libc = library;
+        this.pageSize = pageSize(library);
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            freeSlots.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * @return The arena shared by the application's entries, created on first use.
+     */
+    public static SecretArena getDefault() {
+        SecretArena arena = defaultArena;
+        if (arena == null) {
+            synchronized (SecretArena.class) {
+                arena = defaultArena;
+                if (arena == null) {
+                    arena = new SecretArena();
+                    defaultArena = arena;
+                }
+            }
+        }
+        return arena;
+    }
+
+    /**
+     * Copies {@code chars} into the arena. The caller still owns and should wipe {@code chars}.
+     */
+    public Secret store(char[] chars) {
+        Slot slot = allocate(chars.length * 2);
+        Secret secret = new Secret(this, slot, chars.length);
+        secret.write(chars);
+        return secret;
+    }
+
+    /**
+     * @return true if secrets are held in native memory rather than heap arrays.
+     */
+    public boolean isNative() {
+        return nativeMemory;
+    }
+
+    /**
+     * @return How many slabs are locked in RAM, for diagnostics.
+     */
+    public synchronized int getLockedSlabCount() {
+        return lockedSlabs;
+    }
+
+    /**
+     * @return How many secrets are stored and not yet closed.
+     */
+    public synchronized int getLiveSecretCount() {
+        return liveSecrets;
+    }
+
+    /**
+     * Wipes and frees all native memory. Secrets that are still open read as empty afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        for (Slab slab : slabs) {
+            slab.base.setMemory(0, slab.size, (byte) 0);
+            if (slab.locked) unlock(slab);
+            slab.allocation.close();
+        }
+        slabs.clear();
+        freeSlots.forEach(Deque::clear);
+        Arrays.fill(currentSlab, null);
+        lockedSlabs = 0;
+        liveSecrets = 0;
+        synchronized (SecretArena.class) {
+            if (defaultArena == this) defaultArena = null;
+        }
+    }
+
+    private synchronized Slot allocate(int bytes) {
+        if (closed) throw new IllegalStateException("Secret arena is closed.");
+        Slot slot;
+        if (!nativeMemory) {
+            slot = new Slot(null, 0, -1, new char[bytes / 2]);
+        } else if (bytes > MAX_SLOT) {
+            // Too large for a size class; gets a slab of its own
+            Slab slab = newSlab(bytes);
+            slab.used = bytes;
+            slot = new Slot(slab, 0, -1, null);
+        } else {
+            int sizeClass = sizeClass(bytes);
+            slot = freeSlots.get(sizeClass).poll();
+            if (slot == null) {
+                int slotSize = MIN_SLOT << sizeClass;
+                Slab slab = currentSlab[sizeClass];
+                if (slab == null || slab.used + slotSize > slab.size) {
+                    slab = newSlab(SLAB_SIZE);
+                    currentSlab[sizeClass] = slab;
+                }
+                slot = new Slot(slab, slab.used, sizeClass, null);
+                slab.used += slotSize;
+            }
+        }
+        liveSecrets++;
+        return slot;
+    }
+
+    private synchronized void free(Slot slot, int bytes) {
+        // Closing the arena already wiped and freed everything
+        if (closed) return;
+        liveSecrets--;
+        if (slot.heap() != null) {
+            Arrays.fill(slot.heap(), '\0');
+            return;
+        }
+        slot.slab().base.setMemory(slot.offset(), bytes, (byte) 0);
+        if (slot.sizeClass() < 0) {
+            if (slot.slab().locked) unlock(slot.slab());
+            slabs.remove(slot.slab());
+            slot.slab().allocation.close();
+        } else {
+            freeSlots.get(slot.sizeClass()).push(slot);
+        }
+    }
+
+    private Slab newSlab(long bytes) {
+        long size = (bytes + pageSize - 1) / pageSize * pageSize;
+        // Over-allocate by a page so the slab can start on a page boundary, as madvise requires
+        Memory allocation = new Memory(size + pageSize);
+        Pointer base = allocation.align((int) pageSize);
+        base.setMemory(0, size, (byte) 0);
+        boolean locked = lock(base, size);
+        Slab slab = new Slab(allocation, base, size, locked);
+        slabs.add(slab);
+        if (locked) lockedSlabs++;
+        return slab;
+    }
+
+    private boolean lock(Pointer base, long size) {
+        try {
+            if (Platform.isWindows()) {
+                return Kernel32.INSTANCE.VirtualLock(base, new BaseTSD.SIZE_T(size));
+            }
+            if (Platform.isLinux()) {
+                libc.madvise(base, new NativeLong(size), MADV_DONTDUMP);
+            }
+            return libc.mlock(base, new NativeLong(size)) == 0;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private void unlock(Slab slab) {
+        try {
+            if (Platform.isWindows()) {
+                Kernel32.INSTANCE.VirtualUnlock(slab.base, new BaseTSD.SIZE_T(slab.size));
+            } else {
+                libc.munlock(slab.base, new NativeLong(slab.size));
+            }
+        } catch (Throwable ignored) {
+            // The memory is freed right after; nothing else to do
+        }
+        lockedSlabs--;
+    }
+
+    private static int sizeClass(int bytes) {
+        int slot = Math.max(MIN_SLOT, Integer.highestOneBit(Math.max(1, bytes - 1)) << 1);
+        return Integer.numberOfTrailingZeros(slot) - Integer.numberOfTrailingZeros(MIN_SLOT);
+    }
+
+    private static long pageSize(CLibrary library) {
+        try {
+            if (library != null) {
+                int size = library.getpagesize();
+                if (size > 0) return size;
+            }
+        } catch (Throwable ignored) {
+            // Fall through to the common default
+        }
+        return 4096;
+    }
+
+    /**
+     * A handle to one secret in the arena. Copies of an entry share the handle through
+     * {@link #retain()} instead of duplicating the plaintext; the slot is wiped when the last
+     * holder closes it.
+     */
+    public static final class Secret implements AutoCloseable {
+
+        private final SecretArena arena;
+        private final int length;
+        private final State state;
+        private final Cleaner.Cleanable cleanable;
+
+        /**
+         * Kept apart from the handle so the cleaner does not keep the handle reachable.
+         */
+        private static final class State implements Runnable {
+            final SecretArena arena;
+            final Slot slot;
+            final int bytes;
+            int references = 1;
+            boolean freed = false;
+
+            State(SecretArena arena, Slot slot, int bytes) {
+                this.arena = arena;
+                this.slot = slot;
+                this.bytes = bytes;
+            }
+
+            @Override
+            public void run() {
+                synchronized (arena) {
+                    if (freed) return;
+                    freed = true;
+                    arena.free(slot, bytes);
+                }
+            }
+        }
+
+        private Secret(SecretArena arena, Slot slot, int length) {
+            this.arena = arena;
+            this.length = length;
+            this.state = new State(arena, slot, length * 2);
+            this.cleanable = CLEANER.register(this, state);
+        }
+
+        /**
+         * @return The number of chars in the secret.
+         */
+        public int length() {
+            return length;
+        }
+
+        /**
+         * Adds a holder; each holder closes the secret once.
+         */
+        public Secret retain() {
+            synchronized (arena) {
+                if (state.freed) throw new IllegalStateException("Secret is closed.");
+                state.references++;
+            }
+            return this;
+        }
+
+        /**
+         * @return A copy of the secret that the caller should wipe after use. Empty once the
+         * arena is closed.
+         * @throws IllegalStateException If the secret has been closed.
+         */
+        public char[] copy() {
+            synchronized (arena) {
+                if (state.freed) throw new IllegalStateException("Secret is closed.");
+                if (arena.closed) return new char[0];
+                if (state.slot.heap() != null) {
+                    return Arrays.copyOf(state.slot.heap(), length);
+                }
+                char[] chars = new char[length];
+                Pointer base = state.slot.slab().base;
+                for (int i = 0; i < length; i++) {
+                    chars[i] = (char) base.getShort(state.slot.offset() + 2L * i);
+                }
+                return chars;
+            }
+        }
+
+        /**
+         * Releases this holder's reference; the last one wipes and frees the slot.
+         */
+        @Override
+        public void close() {
+            synchronized (arena) {
+                if (state.freed || --state.references > 0) return;
+            }
+            cleanable.clean();
+        }
+
+        /**
+         * @return Where the secret's bytes are in native memory, or null if they are on the heap.
+         * Only tests look at them.
+         */
+        Pointer pointer() {
+            return state.slot.heap() != null ? null : state.slot.slab().base.share(state.slot.offset());
+        }
+
+        private void write(char[] chars) {
+            synchronized (arena) {
+                if (state.slot.heap() != null) {
+                    System.arraycopy(chars, 0, state.slot.heap(), 0, length);
+                    return;
+                }
+                Pointer base = state.slot.slab().base;
+                for (int i = 0; i < length; i++) {
+                    base.setShort(state.slot.offset() + 2L * i, (short) chars[i]);
+                }
+            }
+        }
+    }
+}
@@ -12,9 +12,17 @@ module com.himanshu.securex {
     opens com.himanshu.securex to javafx.fxml, javafx.graphics;
     opens com.himanshu.securex.controller to javafx.fxml;
     opens com.himanshu.securex.model to com.google.gson;
+    // Journal records and the vault manifest are serialized by reflection, too
+    opens com.himanshu.securex.services to com.google.gson;
 
     //System integration for opening URLs
     requires java.desktop;
 
+    // Flight Recorder events for diagnostics
+    requires jdk.jfr;
+
+    // Peer credentials of connections to the command-line agent
+    requires jdk.net;
+
     exports com.himanshu.securex;
 }
\ No newline at end of file
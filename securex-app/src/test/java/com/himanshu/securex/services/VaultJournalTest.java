@@ -0,0 +1,72 @@
+package com.himanshu.securex.services;
+
+import com.himanshu.securex.model.PasswordEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VaultJournalTest {
+
+    @TempDir
+    Path appDir;
+
+    @Test
+    void editsAfterATornAppendSurviveAReload() throws Exception {
+        StorageService storage = open();
+        storage.save(List.of(entry("one"), entry("two"), entry("three")));
+        storage.put(entry("four"));
+        storage.close();
+
+        Path journalFile = appDir.resolve("vault.log");
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+
+        storage = open();
+        assertEquals(List.of("one", "two", "three"), accounts(storage.load()));
+        storage.put(entry("edit-after-crash"));
+        storage.close();
+
+        storage = open();
+        assertEquals(List.of("one", "two", "three", "edit-after-crash"), accounts(storage.load()));
+        storage.close();
+    }
+
+    @Test
+    void replayCutsTheFileBackToTheLastCompleteRecord() throws Exception {
+        StorageService storage = open();
+        storage.put(entry("one"));
+        storage.close();
+
+        Path journalFile = appDir.resolve("vault.log");
+        long goodSize = Files.size(journalFile);
+        Files.writeString(journalFile, "torn", StandardOpenOption.APPEND);
+
+        storage = open();
+        assertEquals(List.of("one"), accounts(storage.load()));
+        storage.close();
+
+        assertEquals(goodSize, Files.size(journalFile));
+        assertTrue(Files.readString(journalFile).endsWith(System.lineSeparator()));
+    }
+
+    private StorageService open() {
+        return new StorageService(new CryptoService(new byte[32]), appDir);
+    }
+
+    private static PasswordEntry entry(String account) {
+        return new PasswordEntry(account, "user", "secret".toCharArray(), "");
+    }
+
+    private static List<String> accounts(List<PasswordEntry> entries) {
+        return entries.stream().map(PasswordEntry::getAccount).toList();
+    }
+}
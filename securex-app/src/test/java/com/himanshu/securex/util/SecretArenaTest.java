@@ -0,0 +1,83 @@
+package com.himanshu.securex.util;
+
+import com.sun.jna.Pointer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class SecretArenaTest {
+
+    private static final char[] PASSWORD = "correct horse battery staple".toCharArray();
+
+    private SecretArena arena;
+
+    @BeforeEach
+    void createArena() {
+        arena = new SecretArena();
+        assumeTrue(arena.isNative(), "JNA's native library is unavailable");
+    }
+
+    @AfterEach
+    void closeArena() {
+        arena.close();
+    }
+
+    @Test
+    void closingASecretWipesItsNativeBytes() {
+        SecretArena.Secret secret = arena.store(PASSWORD);
+        Pointer bytes = secret.pointer();
+        assertEquals(PASSWORD[0], (char) bytes.getShort(0));
+
+        secret.close();
+
+        // The slot stays allocated for reuse, so it can still be read
+        assertArrayEquals(new byte[PASSWORD.length * 2], bytes.getByteArray(0, PASSWORD.length * 2));
+        assertThrows(IllegalStateException.class, secret::copy);
+        assertEquals(0, arena.getLiveSecretCount());
+    }
+
+    @Test
+    void sharedSecretIsWipedByItsLastHolder() {
+        SecretArena.Secret secret = arena.store(PASSWORD);
+        Pointer bytes = secret.pointer();
+        secret.retain();
+
+        secret.close();
+        assertArrayEquals(PASSWORD, secret.copy());
+
+        secret.close();
+        assertArrayEquals(new byte[PASSWORD.length * 2], bytes.getByteArray(0, PASSWORD.length * 2));
+        assertThrows(IllegalStateException.class, secret::copy);
+        assertThrows(IllegalStateException.class, secret::retain);
+    }
+
+    @Test
+    void freedSlotIsReusedWiped() {
+        SecretArena.Secret first = arena.store(PASSWORD);
+        Pointer bytes = first.pointer();
+        first.close();
+
+        // Same size class, so it takes the slot just freed
+        char[] shorter = "a shorter password".toCharArray();
+        SecretArena.Secret second = arena.store(shorter);
+        assertEquals(bytes, second.pointer());
+        int rest = (PASSWORD.length - shorter.length) * 2;
+        assertArrayEquals(new byte[rest], bytes.getByteArray(shorter.length * 2L, rest));
+        assertArrayEquals(shorter, second.copy());
+        second.close();
+    }
+
+    @Test
+    void closedArenaRejectsNewSecrets() {
+        SecretArena.Secret secret = arena.store(PASSWORD);
+        arena.close();
+
+        assertEquals(0, secret.copy().length);
+        assertThrows(IllegalStateException.class, () -> arena.store(PASSWORD));
+    }
+}
@@ -0,0 +1,101 @@
+package com.himanshu.securex.benchmarks;
+
+import com.himanshu.securex.cli.AgentClient;
+import com.himanshu.securex.cli.VaultAgent;
+import com.himanshu.securex.model.PasswordEntry;
+import com.himanshu.securex.services.StorageService;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the command-line agent: hundreds of clients, each with its own connection, looking
+ * entries up at the same time. Sample mode reports the latency percentiles a script would see.
+ *
+ * The agent serves a scratch vault on a socket in the scratch directory. Change the client count
+ * with {@code -t}, e.g. {@code AgentBenchmark -t 1} for the uncontended round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(256)
+@Fork(1)
+public class AgentBenchmark {
+
+    @Param({"1000"})
+    public int entries;
+
+    private Path dir;
+    private VaultAgent agent;
+    private Path socket;
+    private String[] names;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = VaultGenerator.createScratchDir();
+        StorageService storage = new StorageService(VaultGenerator.benchmarkCrypto(), dir);
+        List<PasswordEntry> list = VaultGenerator.entries(entries, 42);
+        storage.saveWithoutBackup(list);
+        names = list.stream().map(PasswordEntry::getAccount).toArray(String[]::new);
+
+        socket = dir.resolve("agent.sock");
+        agent = new VaultAgent(storage, socket, -1);
+        agent.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        agent.close();
+        VaultGenerator.deleteRecursively(dir);
+    }
+
+    /**
+     * One client's connection, opened before measuring like a script that keeps it.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        AgentClient client;
+
+        @Setup(Level.Trial)
+        public void connect(AgentBenchmark benchmark) throws Exception {
+            client = AgentClient.connect(benchmark.socket);
+        }
+
+        @TearDown(Level.Trial)
+        public void disconnect() throws Exception {
+            client.close();
+        }
+    }
+
+    @Benchmark
+    public AgentClient.EntryInfo get(Client client) throws Exception {
+        String name = names[ThreadLocalRandom.current().nextInt(names.length)];
+        AgentClient.Found found = client.client.get(name);
+        Arrays.fill(found.password(), '\0');
+        return found.entry();
+    }
+
+    @Benchmark
+    public List<AgentClient.EntryInfo> search(Client client) throws Exception {
+        return client.client.search("github");
+    }
+
+    /**
+     * A fresh connection per lookup, as each run of the {@code securex} command makes.
+     */
+    @Benchmark
+    public AgentClient.EntryInfo connectAndGet() throws Exception {
+        String name = names[ThreadLocalRandom.current().nextInt(names.length)];
+        try (AgentClient client = AgentClient.connect(socket)) {
+            AgentClient.Found found = client.get(name);
+            Arrays.fill(found.password(), '\0');
+            return found.entry();
+        }
+    }
+}
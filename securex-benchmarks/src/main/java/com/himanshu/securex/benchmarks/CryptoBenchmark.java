@@ -0,0 +1,59 @@
+package com.himanshu.securex.benchmarks;
+
+import com.himanshu.securex.services.CryptoService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AES-GCM throughput of {@link CryptoService} from 1 KB to 50 MB.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptoBenchmark {
+
+    @Param({"1024", "65536", "1048576", "52428800"})
+    public int size;
+
+    private CryptoService crypto;
+    private byte[] plain;
+    private byte[] encrypted;
+    private byte[] out;
+
+    @Setup
+    public void setup() throws Exception {
+        crypto = VaultGenerator.benchmarkCrypto();
+        plain = new byte[size];
+        new Random(42).nextBytes(plain);
+        encrypted = crypto.encrypt(plain);
+        out = new byte[CryptoService.encryptedLength(size)];
+    }
+
+    @Benchmark
+    public byte[] encrypt() throws Exception {
+        return crypto.encrypt(plain);
+    }
+
+    @Benchmark
+    public byte[] decrypt() throws Exception {
+        return crypto.decrypt(encrypted);
+    }
+
+    /**
+     * The allocation-free path: encrypts into a reused buffer.
+     */
+    @Benchmark
+    public int encryptInto() throws Exception {
+        return crypto.encrypt(plain, 0, plain.length, out, 0);
+    }
+
+    @Benchmark
+    public int decryptInto() throws Exception {
+        return crypto.decrypt(encrypted, 0, encrypted.length, out, 0);
+    }
+}
@@ -0,0 +1,44 @@
+package com.himanshu.securex.benchmarks;
+
+import com.himanshu.securex.services.CryptoService;
+import com.himanshu.securex.util.HashUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of constructing a password-derived {@link CryptoService} (PBKDF2) and of the raw derivation
+ * at the iteration counts calibration typically picks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class KeyDerivationBenchmark {
+
+    @Param({"65536", "262144", "1048576"})
+    public int iterations;
+
+    private final char[] password = "correct horse battery staple".toCharArray();
+    private byte[] salt;
+
+    @Setup
+    public void setup() {
+        salt = HashUtil.generateSalt();
+    }
+
+    @Benchmark
+    public byte[] deriveKey() {
+        return HashUtil.deriveKey(password, salt, iterations);
+    }
+
+    /**
+     * The legacy constructor always uses {@link HashUtil#MIN_ITERATIONS}.
+     */
+    @Benchmark
+    public CryptoService cryptoServiceConstruction() {
+        return new CryptoService(password.clone(), salt);
+    }
+}
@@ -0,0 +1,23 @@
+package com.himanshu.securex.benchmarks;
+
+import com.himanshu.securex.util.PasswordGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordGeneratorBenchmark {
+
+    @Param({"16", "32", "64"})
+    public int length;
+
+    @Benchmark
+    public char[] generatePassword() {
+        return PasswordGenerator.generatePassword(length);
+    }
+}
@@ -0,0 +1,54 @@
+package com.himanshu.securex.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.himanshu.securex.model.PasswordEntry;
+import com.himanshu.securex.services.CryptoService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson (de)serialization of entry lists, as done for every vault snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final Type ENTRY_LIST_TYPE = new TypeToken<ArrayList<PasswordEntry>>() {}.getType();
+
+    @Param({"100", "10000", "100000"})
+    public int entries;
+
+    private final Gson gson = new Gson();
+    private List<PasswordEntry> list;
+    private String json;
+
+    @Setup
+    public void setup() {
+        list = VaultGenerator.entries(entries, 42);
+        // Seal the passwords, so the JSON has the same shape as on disk
+        CryptoService crypto = VaultGenerator.benchmarkCrypto();
+        for (PasswordEntry entry : list) {
+            entry.attach(crypto);
+        }
+        json = gson.toJson(list, ENTRY_LIST_TYPE);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return gson.toJson(list, ENTRY_LIST_TYPE);
+    }
+
+    @Benchmark
+    public List<PasswordEntry> deserialize() {
+        return gson.fromJson(json, ENTRY_LIST_TYPE);
+    }
+}
@@ -0,0 +1,75 @@
+package com.himanshu.securex.benchmarks;
+
+import com.himanshu.securex.model.PasswordEntry;
+import com.himanshu.securex.services.StorageService;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end vault I/O against a scratch directory: full snapshot writes, loads and backups.
+ * Run with {@code -prof gc} to see the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int entries;
+
+    private Path dir;
+    private StorageService storage;
+    private List<PasswordEntry> list;
+    private int edits;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = VaultGenerator.createScratchDir();
+        storage = new StorageService(VaultGenerator.benchmarkCrypto(), dir);
+        list = VaultGenerator.entries(entries, 42);
+        storage.saveWithoutBackup(list);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        storage.close();
+        VaultGenerator.deleteRecursively(dir);
+    }
+
+    /**
+     * A full save: backup of the current vault plus a new snapshot. Saving unchanged entries does
+     * nothing, so each invocation edits one entry first.
+     */
+    @Benchmark
+    public void save() throws Exception {
+        editOne();
+        storage.save(list);
+    }
+
+    @Benchmark
+    public void saveWithoutBackup() throws Exception {
+        editOne();
+        storage.saveWithoutBackup(list);
+    }
+
+    private void editOne() {
+        edits++;
+        list.get(edits % list.size()).setUsername("edited-" + edits);
+    }
+
+    @Benchmark
+    public List<PasswordEntry> load() throws Exception {
+        return storage.load();
+    }
+
+    @Benchmark
+    public void backupCurrentVault() {
+        storage.backupCurrentVault();
+    }
+}
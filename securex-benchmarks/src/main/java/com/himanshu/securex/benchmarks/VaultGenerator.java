@@ -0,0 +1,103 @@
+package com.himanshu.securex.benchmarks;
+
+import com.himanshu.securex.model.PasswordEntry;
+import com.himanshu.securex.services.CryptoService;
+import com.himanshu.securex.services.StorageService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generates synthetic vaults for the benchmarks. The same seed always yields the same entries.
+ *
+ * Can also be run on its own to write a vault to a directory:
+ * <pre>
+ *   java -cp target/benchmarks.jar com.himanshu.securex.benchmarks.VaultGenerator &lt;dir&gt; &lt;entries&gt;
+ * </pre>
+ */
+public final class VaultGenerator {
+
+    private static final String[] SERVICES = {
+            "github", "gitlab", "google", "amazon", "netflix", "spotify", "dropbox", "slack",
+            "atlassian", "linkedin", "twitter", "reddit", "paypal", "stripe", "digitalocean", "heroku"
+    };
+    private static final String[] DOMAINS = {"com", "org", "net", "io", "dev"};
+    private static final String PASSWORD_CHARS =
+            "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789!@#$%^&*()-_=+";
+
+    // A fixed key keeps generated vaults readable across benchmark forks
+    private static final byte[] BENCHMARK_KEY = new byte[32];
+
+    private VaultGenerator() {}
+
+    /**
+     * @return {@code count} entries with realistic field lengths. Passwords are plaintext until
+     * the entries are attached to a vault.
+     */
+    public static List<PasswordEntry> entries(int count, long seed) {
+        Random random = new Random(seed);
+        List<PasswordEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String service = SERVICES[random.nextInt(SERVICES.length)];
+            String domain = DOMAINS[random.nextInt(DOMAINS.length)];
+            String account = service + "-" + i;
+            String username = "user" + random.nextInt(1_000_000) + "@example." + domain;
+            char[] password = new char[12 + random.nextInt(20)];
+            for (int c = 0; c < password.length; c++) {
+                password[c] = PASSWORD_CHARS.charAt(random.nextInt(PASSWORD_CHARS.length()));
+            }
+            String url = "https://" + service + "." + domain + "/login";
+            entries.add(new PasswordEntry(account, username, password, url));
+        }
+        return entries;
+    }
+
+    /**
+     * @return A service for a data key that is the same in every fork.
+     */
+    public static CryptoService benchmarkCrypto() {
+        return new CryptoService(BENCHMARK_KEY.clone());
+    }
+
+    /**
+     * Creates a scratch directory for a vault.
+     */
+    public static Path createScratchDir() throws IOException {
+        return Files.createTempDirectory("securex-bench");
+    }
+
+    /**
+     * Deletes a scratch directory created by {@link #createScratchDir()}.
+     */
+    public static void deleteRecursively(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) return;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: VaultGenerator <dir> <entries>");
+            System.exit(1);
+        }
+        Path dir = Paths.get(args[0]);
+        Files.createDirectories(dir);
+        StorageService storage = new StorageService(benchmarkCrypto(), dir);
+        try {
+            storage.saveWithoutBackup(entries(Integer.parseInt(args[1]), 42));
+        } finally {
+            storage.close();
+        }
+        System.out.println("Wrote " + dir.resolve("vault.dat"));
+    }
+}
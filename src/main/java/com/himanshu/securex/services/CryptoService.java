@@ -1,93 +0,0 @@
-package com.himanshu.securex.services;
-
-import javax.crypto.Cipher;
-import javax.crypto.SecretKey;
-import javax.crypto.SecretKeyFactory;
-import javax.crypto.spec.GCMParameterSpec;
-import javax.crypto.spec.PBEKeySpec;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
-import java.security.SecureRandom;
-import java.security.spec.KeySpec;
-import java.util.Arrays;
-import java.util.Base64;
-
-/**
- * Handles the encryption and decryption of the password vault.
- */
-public class CryptoService {
-
-    private static final String ENCRYPTION_ALGORITHM = "AES/GCM/NoPadding";
-    private static final String KEY_DERIVATION_ALGORITHM = "PBKDF2WithHmacSHA256";
-    private static final int TAG_LENGTH_BIT = 128;
-    private static final int IV_LENGTH_BYTE = 12;
-    private static final int ITERATION_COUNT = 65536;
-    private static final int KEY_LENGTH = 256;
-
-    private final SecretKey secretKey;
-
-    /**
-     * Initializes the service by deriving a strong encryption key from the master password and a salt.
-     * @param masterPassword The user's master password.
-     * @param salt The salt to use for key derivation.
-     */
-    public CryptoService(char[] masterPassword, byte[] salt) {
-        PBEKeySpec spec = null;
-        try {
-            SecretKeyFactory factory = SecretKeyFactory.getInstance(KEY_DERIVATION_ALGORITHM);
-            spec = new PBEKeySpec(masterPassword, salt, ITERATION_COUNT, KEY_LENGTH);
-            SecretKey tmp = factory.generateSecret(spec);
-            this.secretKey = new SecretKeySpec(tmp.getEncoded(), "AES");
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to initialize CryptoService", e);
-        } finally {
-            if (spec != null) {
-                spec.clearPassword();
-            }
-            Arrays.fill(masterPassword, '\0');
-        }
-    }
-
-    /**
-     * Encrypts the given plaintext data.
-     * @param plainText The data to encrypt.
-     * @return A Base64 encoded string of the encrypted data (IV + ciphertext).
-     */
-    public String encrypt(String plainText) throws Exception {
-        byte[] iv = new byte[IV_LENGTH_BYTE];
-        new SecureRandom().nextBytes(iv);
-        GCMParameterSpec parameterSpec = new GCMParameterSpec(TAG_LENGTH_BIT, iv);
-
-        Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
-        cipher.init(Cipher.ENCRYPT_MODE, secretKey, parameterSpec);
-        byte[] cipherText = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
-
-        ByteBuffer byteBuffer = ByteBuffer.allocate(iv.length + cipherText.length);
-        byteBuffer.put(iv);
-        byteBuffer.put(cipherText);
-        return Base64.getEncoder().encodeToString(byteBuffer.array());
-    }
-
-    /**
-     * Decrypts the given ciphertext.
-     * @param cipherTextWithIv The Base64 encoded string to decrypt.
-     * @return The original plaintext data.
-     */
-    public String decrypt(String cipherTextWithIv) throws Exception {
-        byte[] decoded = Base64.getDecoder().decode(cipherTextWithIv);
-        ByteBuffer byteBuffer = ByteBuffer.wrap(decoded);
-
-        byte[] iv = new byte[IV_LENGTH_BYTE];
-        byteBuffer.get(iv);
-        byte[] cipherText = new byte[byteBuffer.remaining()];
-        byteBuffer.get(cipherText);
-
-        Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
-        GCMParameterSpec parameterSpec = new GCMParameterSpec(TAG_LENGTH_BIT, iv);
-        cipher.init(Cipher.DECRYPT_MODE, secretKey, parameterSpec);
-
-        byte[] plainText = cipher.doFinal(cipherText);
-        return new String(plainText, StandardCharsets.UTF_8);
-    }
-}
\ No newline at end of file